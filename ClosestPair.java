@@ -1,6 +1,7 @@
 //2b (Algorithm Design Technique)
 
 import java.util.Arrays;
+import java.util.Random;
 
 public class ClosestPair {
 
@@ -31,6 +32,167 @@ public class ClosestPair {
         return result;
     }
 
+    // Best pair seen so far: Manhattan distance and indices i < j
+    static final class Pair {
+        long distance = Long.MAX_VALUE;
+        int i, j;
+
+        // Function to keep the closer pair, or the lexicographically smaller one on a tie
+        void offer(long d, int a, int b) {
+            int first = Math.min(a, b), second = Math.max(a, b);
+            if (d < distance || (d == distance && (first < i || (first == i && second < j)))) {
+                distance = d;
+                i = first;
+                j = second;
+            }
+        }
+
+        void offer(Pair other) {
+            if (other.distance != Long.MAX_VALUE) {
+                offer(other.distance, other.i, other.j);
+            }
+        }
+    }
+
+    // Sub-quadratic version: rotate by 45 degrees so Manhattan distance becomes
+    // Chebyshev distance max(|du|, |dv|), then run divide and conquer on u in O(n log n)
+    public static int[] findClosestPairFast(int[] xCoords, int[] yCoords) {
+        int n = xCoords.length;
+        if (n < 2) {
+            return new int[2];
+        }
+
+        long[] u = new long[n];
+        long[] v = new long[n];
+        for (int i = 0; i < n; i++) {
+            u[i] = (long) xCoords[i] + yCoords[i];
+            v[i] = (long) xCoords[i] - yCoords[i];
+        }
+
+        int[] ord = sortedByU(u, v, n);
+
+        // Coincident points are adjacent in (u, v, index) order and always win with distance 0
+        Pair duplicates = new Pair();
+        for (int k = 1; k < n; k++) {
+            int a = ord[k - 1], b = ord[k];
+            if (u[a] == u[b] && v[a] == v[b]) {
+                duplicates.offer(0, a, b);
+            }
+        }
+        if (duplicates.distance == 0) {
+            return new int[] { duplicates.i, duplicates.j };
+        }
+
+        Pair best = solve(u, v, ord, new int[n], 0, n);
+        return new int[] { best.i, best.j };
+    }
+
+    // Function to sort point indices by (u, v, index) with a primitive merge sort
+    static int[] sortedByU(long[] u, long[] v, int n) {
+        int[] ord = new int[n];
+        for (int i = 0; i < n; i++) {
+            ord[i] = i;
+        }
+        sortByU(u, v, ord, new int[n], 0, n);
+        return ord;
+    }
+
+    // Function to sort ord[lo, hi) by (u, v, index), bottom-up
+    static void sortByU(long[] u, long[] v, int[] ord, int[] buffer, int lo, int hi) {
+        for (int width = 1; width < hi - lo; width *= 2) {
+            for (int from = lo; from < hi - width; from += 2 * width) {
+                mergeByU(u, v, ord, buffer, from, from + width, Math.min(from + 2 * width, hi));
+            }
+        }
+    }
+
+    // Function to merge two (u, v, index)-sorted runs ord[lo, mid) and ord[mid, hi)
+    static void mergeByU(long[] u, long[] v, int[] ord, int[] buffer, int lo, int mid, int hi) {
+        int a = lo, b = mid, k = lo;
+        while (a < mid && b < hi) {
+            buffer[k++] = lessByU(u, v, ord[a], ord[b]) ? ord[a++] : ord[b++];
+        }
+        while (a < mid) {
+            buffer[k++] = ord[a++];
+        }
+        while (b < hi) {
+            buffer[k++] = ord[b++];
+        }
+        System.arraycopy(buffer, lo, ord, lo, hi - lo);
+    }
+
+    static boolean lessByU(long[] u, long[] v, int p, int q) {
+        return u[p] != u[q] ? u[p] < u[q] : v[p] != v[q] ? v[p] < v[q] : p < q;
+    }
+
+    // Function to solve ord[lo, hi) (sorted by u, no coincident points); leaves the range sorted by v
+    static Pair solve(long[] u, long[] v, int[] ord, int[] aux, int lo, int hi) {
+        Pair best = new Pair();
+        if (hi - lo <= 3) {
+            for (int a = lo; a < hi; a++) {
+                for (int b = a + 1; b < hi; b++) {
+                    best.offer(distance(u, v, ord[a], ord[b]), ord[a], ord[b]);
+                }
+            }
+            // Insertion sort by v
+            for (int a = lo + 1; a < hi; a++) {
+                int p = ord[a], b = a - 1;
+                while (b >= lo && v[ord[b]] > v[p]) {
+                    ord[b + 1] = ord[b];
+                    b--;
+                }
+                ord[b + 1] = p;
+            }
+            return best;
+        }
+
+        int mid = (lo + hi) >>> 1;
+        long midU = u[ord[mid]];
+        best.offer(solve(u, v, ord, aux, lo, mid));
+        best.offer(solve(u, v, ord, aux, mid, hi));
+
+        mergeByV(v, ord, aux, lo, mid, hi);
+        scanStrip(u, v, ord, aux, lo, hi, midU, best);
+        return best;
+    }
+
+    // Function to merge two v-sorted runs ord[lo, mid) and ord[mid, hi)
+    static void mergeByV(long[] v, int[] ord, int[] aux, int lo, int mid, int hi) {
+        int a = lo, b = mid, k = lo;
+        while (a < mid && b < hi) {
+            aux[k++] = v[ord[a]] <= v[ord[b]] ? ord[a++] : ord[b++];
+        }
+        while (a < mid) {
+            aux[k++] = ord[a++];
+        }
+        while (b < hi) {
+            aux[k++] = ord[b++];
+        }
+        System.arraycopy(aux, lo, ord, lo, hi - lo);
+    }
+
+    // Function to check pairs across the split line: points within best of midU, compared while
+    // their v values are within best (inclusive, so equal-distance pairs still get the tie rule)
+    static void scanStrip(long[] u, long[] v, int[] ord, int[] strip, int lo, int hi, long midU, Pair best) {
+        int size = 0;
+        for (int k = lo; k < hi; k++) {
+            if (Math.abs(u[ord[k]] - midU) <= best.distance) {
+                strip[lo + size++] = ord[k];
+            }
+        }
+        for (int a = lo; a < lo + size; a++) {
+            int p = strip[a];
+            for (int b = a + 1; b < lo + size && v[strip[b]] - v[p] <= best.distance; b++) {
+                best.offer(distance(u, v, p, strip[b]), p, strip[b]);
+            }
+        }
+    }
+
+    // Manhattan distance of the original points = Chebyshev distance of the rotated ones
+    static long distance(long[] u, long[] v, int a, int b) {
+        return Math.max(Math.abs(u[a] - u[b]), Math.abs(v[a] - v[b]));
+    }
+
     public static void main(String[] args) {
         // Test Case 1
         int[] xCoords = { 1, 2, 3, 2, 4 };
@@ -52,5 +214,35 @@ public class ClosestPair {
         System.out.println("\nTest Case 3:");
         System.out.println("Input: xCoords = [0, 10, 20], yCoords = [0, 10, 20]");
         System.out.println("Output: " + Arrays.toString(findClosestPair(xCoords3, yCoords3))); // Expected: [0, 1]
+
+        // Test Case 4: the O(n log n) version agrees with the double loop on random inputs
+        Random random = new Random(1);
+        int mismatches = 0;
+        for (int trial = 0; trial < 2000; trial++) {
+            int n = 2 + random.nextInt(60);
+            int range = 1 + random.nextInt(trial % 2 == 0 ? 10 : 1000);
+            int[] xs = new int[n], ys = new int[n];
+            for (int i = 0; i < n; i++) {
+                xs[i] = random.nextInt(range) - range / 2;
+                ys[i] = random.nextInt(range) - range / 2;
+            }
+            if (!Arrays.equals(findClosestPair(xs, ys), findClosestPairFast(xs, ys))) {
+                mismatches++;
+            }
+        }
+        System.out.println("\nTest Case 4:");
+        System.out.println("Random mismatches: " + mismatches); // Expected: 0
+
+        // Test Case 5: one million points
+        int n = 1_000_000;
+        int[] xs = new int[n], ys = new int[n];
+        for (int i = 0; i < n; i++) {
+            xs[i] = random.nextInt(2_000_000_000) - 1_000_000_000;
+            ys[i] = random.nextInt(2_000_000_000) - 1_000_000_000;
+        }
+        long start = System.nanoTime();
+        int[] pair = findClosestPairFast(xs, ys);
+        System.out.println("\nTest Case 5:");
+        System.out.println("Output: " + Arrays.toString(pair) + " in " + (System.nanoTime() - start) / 1_000_000 + " ms");
     }
 }
\ No newline at end of file
@@ -0,0 +1,522 @@
+//2b - Reusable uniform-grid spatial index for repeated closest-pair queries
+
+import java.util.*;
+
+public class ClosestPairIndex {
+
+    // Points sampled when sizing cells from local density
+    private static final int CELL_SAMPLE = 512;
+
+    // Pairs ordered by (distance, i, j)
+    private final Comparator<int[]> pairOrder = (a, b) -> {
+        int byDistance = Long.compare(distance(a[0], a[1]), distance(b[0], b[1]));
+        if (byDistance != 0) {
+            return byDistance;
+        }
+        return a[0] != b[0] ? Integer.compare(a[0], b[0]) : Integer.compare(a[1], b[1]);
+    };
+
+    private final int cellSize;
+
+    // Points by id; deleted points keep their slot so ids stay stable
+    private int[] xs, ys;
+    private boolean[] alive;
+    private int size, liveCount;
+
+    // Each cell holds an intrusive doubly-linked list of point ids
+    private int[] next, prev;
+
+    // Open-addressing table: cell key -> head point id (-1 when the cell is empty)
+    private long[] cellKeys;
+    private int[] cellHeads;
+    private boolean[] cellUsed;
+    private int cellsUsed;
+
+    // Range of cell coordinates ever occupied; bounds the ring search
+    private long minCx = Long.MAX_VALUE, maxCx = Long.MIN_VALUE, minCy = Long.MAX_VALUE, maxCy = Long.MIN_VALUE;
+
+    public ClosestPairIndex(int[] xCoords, int[] yCoords) {
+        this(xCoords, yCoords, chooseCellSize(xCoords, yCoords));
+    }
+
+    public ClosestPairIndex(int[] xCoords, int[] yCoords, int cellSize) {
+        if (cellSize < 1) {
+            throw new IllegalArgumentException("cellSize must be positive");
+        }
+        this.cellSize = cellSize;
+        int capacity = Math.max(16, xCoords.length);
+        xs = new int[capacity];
+        ys = new int[capacity];
+        alive = new boolean[capacity];
+        next = new int[capacity];
+        prev = new int[capacity];
+        int tableSize = Integer.highestOneBit(Math.max(16, capacity) * 2) * 2;
+        cellKeys = new long[tableSize];
+        cellHeads = new int[tableSize];
+        cellUsed = new boolean[tableSize];
+        for (int i = 0; i < xCoords.length; i++) {
+            insert(xCoords[i], yCoords[i]);
+        }
+    }
+
+    // Function to pick a cell size from the density around the points rather than the bounding box:
+    // the median nearest-neighbour distance within an evenly spread sample, scaled from the sample
+    // size to n, so an occupied cell holds about one point even when the points sit in a few clusters
+    private static int chooseCellSize(int[] xCoords, int[] yCoords) {
+        int n = xCoords.length;
+        if (n < 2) {
+            return 1;
+        }
+        int m = Math.min(n, CELL_SAMPLE);
+        int[] sampleX = new int[m], sampleY = new int[m];
+        for (int s = 0; s < m; s++) {
+            int id = (int) ((long) s * n / m);
+            sampleX[s] = xCoords[id];
+            sampleY[s] = yCoords[id];
+        }
+        long[] nearest = new long[m];
+        for (int a = 0; a < m; a++) {
+            nearest[a] = Long.MAX_VALUE;
+            for (int b = 0; b < m; b++) {
+                if (a != b) {
+                    long d = Math.abs((long) sampleX[a] - sampleX[b]) + Math.abs((long) sampleY[a] - sampleY[b]);
+                    nearest[a] = Math.min(nearest[a], d);
+                }
+            }
+        }
+        Arrays.sort(nearest);
+        // In the plane, nearest-neighbour distance shrinks with the square root of the point count
+        double scaled = 2 * nearest[m / 2] * Math.sqrt((double) m / n);
+        return (int) Math.max(1, Math.min(Integer.MAX_VALUE / 2, Math.ceil(scaled)));
+    }
+
+    // Function to add a point; returns its id (the original points keep ids 0..n-1)
+    public int insert(int x, int y) {
+        if (size == xs.length) {
+            int capacity = size * 2;
+            xs = Arrays.copyOf(xs, capacity);
+            ys = Arrays.copyOf(ys, capacity);
+            alive = Arrays.copyOf(alive, capacity);
+            next = Arrays.copyOf(next, capacity);
+            prev = Arrays.copyOf(prev, capacity);
+        }
+        int id = size++;
+        xs[id] = x;
+        ys[id] = y;
+        alive[id] = true;
+        liveCount++;
+
+        long cx = Math.floorDiv(x, cellSize), cy = Math.floorDiv(y, cellSize);
+        minCx = Math.min(minCx, cx);
+        maxCx = Math.max(maxCx, cx);
+        minCy = Math.min(minCy, cy);
+        maxCy = Math.max(maxCy, cy);
+
+        int slot = slotFor(cx, cy, true);
+        int head = cellHeads[slot];
+        next[id] = head;
+        prev[id] = -1;
+        if (head != -1) {
+            prev[head] = id;
+        }
+        cellHeads[slot] = id;
+        return id;
+    }
+
+    // Function to remove a point; returns false if it was already removed
+    public boolean delete(int id) {
+        if (id < 0 || id >= size || !alive[id]) {
+            return false;
+        }
+        alive[id] = false;
+        liveCount--;
+        if (prev[id] != -1) {
+            next[prev[id]] = next[id];
+        } else {
+            int slot = slotFor(Math.floorDiv(xs[id], cellSize), Math.floorDiv(ys[id], cellSize), false);
+            cellHeads[slot] = next[id];
+        }
+        if (next[id] != -1) {
+            prev[next[id]] = prev[id];
+        }
+        return true;
+    }
+
+    public int size() {
+        return liveCount;
+    }
+
+    private static long key(long cx, long cy) {
+        return (cx << 32) ^ (cy & 0xFFFFFFFFL);
+    }
+
+    // Function to find the table slot of a cell (creating it if asked), or -1 if it does not exist
+    private int slotFor(long cx, long cy, boolean create) {
+        long key = key(cx, cy);
+        int mask = cellKeys.length - 1;
+        long h = key * 0x9E3779B97F4A7C15L;
+        int slot = (int) (h >>> 32) & mask;
+        while (cellUsed[slot]) {
+            if (cellKeys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (!create) {
+            return -1;
+        }
+        if ((cellsUsed + 1) * 2 > cellKeys.length) {
+            growTable();
+            return slotFor(cx, cy, true);
+        }
+        cellUsed[slot] = true;
+        cellKeys[slot] = key;
+        cellHeads[slot] = -1;
+        cellsUsed++;
+        return slot;
+    }
+
+    private void growTable() {
+        long[] oldKeys = cellKeys;
+        int[] oldHeads = cellHeads;
+        boolean[] oldUsed = cellUsed;
+        cellKeys = new long[oldKeys.length * 2];
+        cellHeads = new int[oldKeys.length * 2];
+        cellUsed = new boolean[oldKeys.length * 2];
+        cellsUsed = 0;
+        int mask = cellKeys.length - 1;
+        for (int s = 0; s < oldKeys.length; s++) {
+            if (oldUsed[s] && oldHeads[s] != -1) { // Empty cells are dropped on resize
+                int slot = (int) ((oldKeys[s] * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+                while (cellUsed[slot]) {
+                    slot = (slot + 1) & mask;
+                }
+                cellUsed[slot] = true;
+                cellKeys[slot] = oldKeys[s];
+                cellHeads[slot] = oldHeads[s];
+                cellsUsed++;
+            }
+        }
+    }
+
+    // Head of a cell's list, or -1
+    private int head(long cx, long cy) {
+        int slot = slotFor(cx, cy, false);
+        return slot == -1 ? -1 : cellHeads[slot];
+    }
+
+    private long distance(int a, int b) {
+        return Math.abs((long) xs[a] - xs[b]) + Math.abs((long) ys[a] - ys[b]);
+    }
+
+    private interface PointVisitor {
+        void visit(int q);
+    }
+
+    // Tells a ring search it may stop after ring r; points in ring r + 1 or further are at least
+    // r * cellSize + 1 away from the centre cell's points
+    private interface RingBound {
+        boolean done(long r);
+    }
+
+    // Function to visit the points around cell (cx, cy) ring by ring until bound says the rest cannot
+    // matter. Once the rings walked would cover more cells than are occupied, the remaining occupied
+    // cells are visited in one pass over the table, so one search costs O(occupied cells) at worst
+    private void searchRings(long cx, long cy, PointVisitor visitor, RingBound bound) {
+        long maxRing = Math.max(Math.max(cx - minCx, maxCx - cx), Math.max(cy - minCy, maxCy - cy));
+        for (long r = 0; r <= maxRing; r++) {
+            if ((2 * r + 1) * (2 * r + 1) > cellsUsed) {
+                for (int s = 0; s < cellKeys.length; s++) {
+                    if (cellUsed[s] && cellHeads[s] != -1) {
+                        long gx = cellKeys[s] >> 32, gy = (int) cellKeys[s];
+                        if (Math.max(Math.abs(gx - cx), Math.abs(gy - cy)) >= r) {
+                            for (int q = cellHeads[s]; q != -1; q = next[q]) {
+                                visitor.visit(q);
+                            }
+                        }
+                    }
+                }
+                return;
+            }
+            // Walk the cells whose Chebyshev cell-distance from (cx, cy) is exactly r
+            for (long dx = -r; dx <= r; dx++) {
+                long step = (dx == -r || dx == r) ? 1 : 2 * r;
+                for (long dy = -r; dy <= r; dy += Math.max(step, 1)) {
+                    for (int q = head(cx + dx, cy + dy); q != -1; q = next[q]) {
+                        visitor.visit(q);
+                    }
+                }
+            }
+            if (bound.done(r)) {
+                return;
+            }
+        }
+    }
+
+    // Function to find the nearest other point to point i (smallest id on ties), or -1
+    public int nearestNeighbor(int i) {
+        if (i < 0 || i >= size || !alive[i] || liveCount < 2) {
+            return -1;
+        }
+        long[] bestDistance = { Long.MAX_VALUE };
+        int[] best = { -1 };
+        searchRings(Math.floorDiv(xs[i], cellSize), Math.floorDiv(ys[i], cellSize), q -> {
+            if (q != i) {
+                long d = distance(i, q);
+                if (d < bestDistance[0] || (d == bestDistance[0] && q < best[0])) {
+                    bestDistance[0] = d;
+                    best[0] = q;
+                }
+            }
+        }, r -> bestDistance[0] <= r * cellSize);
+        return best[0];
+    }
+
+    // Function to list every pair (i < j) with distance <= d, ordered by (i, j). Each point walks the
+    // cells within d of its own, or the occupied cells in one pass over the table when that window holds
+    // more cells than are occupied, so a large d costs O(occupied cells) per point rather than O((d / cellSize)^2)
+    public List<int[]> pairsWithin(long d) {
+        if (d < 0) {
+            throw new IllegalArgumentException("d must be non-negative");
+        }
+        List<int[]> pairs = new ArrayList<>();
+        // Rounded up without d + cellSize - 1, which overflows near Long.MAX_VALUE; cell coordinates span
+        // less than 2^33, so the cap changes nothing but keeps cx - reach from overflowing
+        long reach = Math.min(d / cellSize + (d % cellSize != 0 ? 1 : 0), 1L << 34);
+        for (int i = 0; i < size; i++) {
+            if (!alive[i]) {
+                continue;
+            }
+            long cx = Math.floorDiv(xs[i], cellSize), cy = Math.floorDiv(ys[i], cellSize);
+            long fromX = Math.max(cx - reach, minCx), toX = Math.min(cx + reach, maxCx);
+            long fromY = Math.max(cy - reach, minCy), toY = Math.min(cy + reach, maxCy);
+            int start = pairs.size();
+            long width = toX - fromX + 1, height = toY - fromY + 1;
+            if (width > cellsUsed / height) { // width * height > cellsUsed, without overflowing
+                for (int s = 0; s < cellKeys.length; s++) {
+                    if (cellUsed[s] && cellHeads[s] != -1) {
+                        long gx = cellKeys[s] >> 32, gy = (int) cellKeys[s];
+                        if (Math.max(Math.abs(gx - cx), Math.abs(gy - cy)) <= reach) {
+                            addPairsWithin(i, cellHeads[s], d, pairs);
+                        }
+                    }
+                }
+            } else {
+                for (long gx = fromX; gx <= toX; gx++) {
+                    for (long gy = fromY; gy <= toY; gy++) {
+                        addPairsWithin(i, head(gx, gy), d, pairs);
+                    }
+                }
+            }
+            pairs.subList(start, pairs.size()).sort((a, b) -> Integer.compare(a[1], b[1]));
+        }
+        return pairs;
+    }
+
+    // Function to add (i, q) for every q > i in the cell list starting at head that lies within d of i
+    private void addPairsWithin(int i, int head, long d, List<int[]> pairs) {
+        for (int q = head; q != -1; q = next[q]) {
+            if (q > i && distance(i, q) <= d) {
+                pairs.add(new int[] { i, q });
+            }
+        }
+    }
+
+    // Function to return the k closest pairs ordered by (distance, i, j). Every point searches its
+    // neighbourhood once, feeding a max-heap of the best k pairs so far; a point stops as soon as its
+    // next ring is farther than the heap's worst pair, so the rings walked depend on k and the
+    // density, not on the whole grid
+    public List<int[]> kClosestPairs(int k) {
+        PriorityQueue<int[]> worstFirst = new PriorityQueue<>(Math.max(1, k), pairOrder.reversed());
+        if (k <= 0) {
+            return new ArrayList<>();
+        }
+        for (int id = 0; id < size; id++) {
+            if (!alive[id]) {
+                continue;
+            }
+            int i = id;
+            // Each pair is found once, from its smaller id
+            searchRings(Math.floorDiv(xs[i], cellSize), Math.floorDiv(ys[i], cellSize), q -> {
+                if (q <= i) {
+                    return;
+                }
+                if (worstFirst.size() < k) {
+                    worstFirst.add(new int[] { i, q });
+                    return;
+                }
+                int[] worst = worstFirst.peek();
+                long d = distance(i, q), worstDistance = distance(worst[0], worst[1]);
+                if (d < worstDistance || (d == worstDistance && (i < worst[0] || (i == worst[0] && q < worst[1])))) {
+                    worstFirst.poll();
+                    worstFirst.add(new int[] { i, q });
+                }
+            }, r -> worstFirst.size() == k && distance(worstFirst.peek()[0], worstFirst.peek()[1]) <= r * cellSize);
+        }
+        List<int[]> pairs = new ArrayList<>(worstFirst);
+        pairs.sort(pairOrder);
+        return pairs;
+    }
+
+    // Function to return the closest pair, same answer as ClosestPair.findClosestPair on the live points
+    public int[] closestPair() {
+        List<int[]> best = kClosestPairs(1);
+        return best.isEmpty() ? new int[2] : best.get(0);
+    }
+
+    public static void main(String[] args) {
+        // Test Case 1: same points as ClosestPair Test Case 1
+        int[] xCoords = { 1, 2, 3, 2, 4 };
+        int[] yCoords = { 2, 3, 1, 2, 3 };
+        ClosestPairIndex index = new ClosestPairIndex(xCoords, yCoords);
+        System.out.println("Test Case 1:");
+        System.out.println("Closest pair: " + Arrays.toString(index.closestPair())); // Expected: [0, 3]
+        System.out.println("Nearest to 2: " + index.nearestNeighbor(2)); // Expected: 3
+        System.out.println("Pairs within 1: " + toString(index.pairsWithin(1))); // Expected: [[0, 3], [1, 3]]
+
+        // Test Case 2: after deleting point 3 and inserting (4, 4)
+        index.delete(3);
+        int added = index.insert(4, 4);
+        System.out.println("\nTest Case 2:");
+        System.out.println("Inserted id: " + added); // Expected: 5
+        System.out.println("Closest pair: " + Arrays.toString(index.closestPair())); // Expected: [4, 5]
+        System.out.println("3 closest pairs: " + toString(index.kClosestPairs(3))); // Expected: [[4, 5], [0, 1], [1, 4]]
+
+        // Test Case 3: random queries against brute force after updates
+        Random random = new Random(8);
+        int n = 3000;
+        int[] xs = new int[n], ys = new int[n];
+        for (int i = 0; i < n; i++) {
+            xs[i] = random.nextInt(100000);
+            ys[i] = random.nextInt(100000);
+        }
+        ClosestPairIndex big = new ClosestPairIndex(xs, ys);
+        boolean[] live = new boolean[n + 500];
+        Arrays.fill(live, 0, n, true);
+        int[] allX = Arrays.copyOf(xs, n + 500), allY = Arrays.copyOf(ys, n + 500);
+        for (int t = 0; t < 500; t++) {
+            big.delete(t * 5);
+            live[t * 5] = false;
+            int id = big.insert(random.nextInt(100000), random.nextInt(100000));
+            allX[id] = big.xs[id];
+            allY[id] = big.ys[id];
+            live[id] = true;
+        }
+        int mismatches = 0;
+        for (int q = 0; q < 200; q++) {
+            int i = random.nextInt(n + 500);
+            if (!live[i]) {
+                continue;
+            }
+            int expected = -1;
+            long expectedDistance = Long.MAX_VALUE;
+            for (int j = 0; j < n + 500; j++) {
+                long d = Math.abs((long) allX[i] - allX[j]) + Math.abs((long) allY[i] - allY[j]);
+                if (j != i && live[j] && d < expectedDistance) {
+                    expectedDistance = d;
+                    expected = j;
+                }
+            }
+            if (big.nearestNeighbor(i) != expected) {
+                mismatches++;
+            }
+        }
+        long expectedPairs = 0;
+        for (int i = 0; i < n + 500; i++) {
+            for (int j = i + 1; j < n + 500; j++) {
+                if (live[i] && live[j] && Math.abs(allX[i] - allX[j]) + Math.abs(allY[i] - allY[j]) <= 1000) {
+                    expectedPairs++;
+                }
+            }
+        }
+        System.out.println("\nTest Case 3:");
+        System.out.println("Nearest-neighbour mismatches: " + mismatches); // Expected: 0
+        System.out.println("Pairs within 1000: " + big.pairsWithin(1000).size() + " (expected " + expectedPairs + ")");
+        boolean sameClosest = sameK(big.kClosestPairs(100), bruteKClosest(allX, allY, live, 100, 20000));
+        System.out.println("100 closest pairs match: " + sameClosest); // Expected: true
+
+        // Test Case 4: 20000 points in four tight clusters at the corners of a 10^9 square
+        n = 20000;
+        xs = new int[n];
+        ys = new int[n];
+        for (int i = 0; i < n; i++) {
+            xs[i] = (i % 4 < 2 ? 0 : 1_000_000_000) + random.nextInt(5000);
+            ys[i] = (i % 2 == 0 ? 0 : 1_000_000_000) + random.nextInt(5000);
+        }
+        long start = System.nanoTime();
+        ClosestPairIndex clustered = new ClosestPairIndex(xs, ys);
+        List<int[]> closest = clustered.kClosestPairs(50);
+        long elapsed = (System.nanoTime() - start) / 1_000_000;
+        boolean[] allLive = new boolean[n];
+        Arrays.fill(allLive, true);
+        System.out.println("\nTest Case 4:");
+        System.out.println("Cell size: " + clustered.cellSize); // Expected: tens, not the bounding-box millions
+        System.out.println("50 closest pairs match: " + sameK(closest, bruteKClosest(xs, ys, allLive, 50, 100))
+                + " in " + elapsed + " ms"); // Expected: true
+
+        // Test Case 5: a distance far larger than the cells, with one outlier stretching the grid to 10^9
+        n = 2001;
+        xs = new int[n];
+        ys = new int[n];
+        for (int i = 0; i < n - 1; i++) {
+            xs[i] = random.nextInt(10001);
+            ys[i] = random.nextInt(10001);
+        }
+        xs[n - 1] = 1_000_000_000;
+        ys[n - 1] = 1_000_000_000;
+        ClosestPairIndex spread = new ClosestPairIndex(xs, ys);
+        start = System.nanoTime();
+        int within = spread.pairsWithin(2_000_000).size();
+        elapsed = (System.nanoTime() - start) / 1_000_000;
+        System.out.println("\nTest Case 5:");
+        System.out.println("Pairs within 2 * 10^6: " + within + " in " + elapsed + " ms"); // Expected: 1999000
+        int everyPair = spread.pairsWithin(Long.MAX_VALUE).size();
+        System.out.println("Pairs within Long.MAX_VALUE: " + everyPair); // Expected: 2001000
+        try {
+            spread.pairsWithin(-1);
+        } catch (IllegalArgumentException e) {
+            System.out.println("Negative distance: " + e.getMessage()); // Expected: d must be non-negative
+        }
+    }
+
+    // Function to find the k closest live pairs by checking every pair, for the tests; only pairs
+    // within maxDistance are kept, so maxDistance must exceed the k-th distance
+    private static List<int[]> bruteKClosest(int[] xs, int[] ys, boolean[] live, int k, long maxDistance) {
+        List<long[]> pairs = new ArrayList<>();
+        for (int i = 0; i < xs.length; i++) {
+            for (int j = i + 1; j < xs.length; j++) {
+                long d = Math.abs((long) xs[i] - xs[j]) + Math.abs((long) ys[i] - ys[j]);
+                if (live[i] && live[j] && d <= maxDistance) {
+                    pairs.add(new long[] { d, i, j });
+                }
+            }
+        }
+        pairs.sort((a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0])
+                : a[1] != b[1] ? Long.compare(a[1], b[1]) : Long.compare(a[2], b[2]));
+        List<int[]> top = new ArrayList<>();
+        for (int p = 0; p < Math.min(k, pairs.size()); p++) {
+            top.add(new int[] { (int) pairs.get(p)[1], (int) pairs.get(p)[2] });
+        }
+        return top;
+    }
+
+    private static boolean sameK(List<int[]> a, List<int[]> b) {
+        if (a.size() != b.size()) {
+            return false;
+        }
+        for (int p = 0; p < a.size(); p++) {
+            if (!Arrays.equals(a.get(p), b.get(p))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String toString(List<int[]> pairs) {
+        StringBuilder sb = new StringBuilder("[");
+        for (int[] pair : pairs) {
+            sb.append(sb.length() > 1 ? ", " : "").append(Arrays.toString(pair));
+        }
+        return sb.append(']').toString();
+    }
+}
@@ -0,0 +1,322 @@
+//2b - Fork-join closest pair (same answer as ClosestPair at any parallelism)
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+public class ClosestPairParallel {
+
+    // Ranges below this size are handled by the sequential ClosestPair code
+    static final int THRESHOLD = 1 << 13;
+
+    // Shared state of one search: rotated coordinates, the index / scratch arrays and the leaf size
+    private static final class Points {
+        final long[] u, v;
+        final int[] ord, aux;
+        final int threshold;
+
+        Points(long[] u, long[] v, int[] ord, int[] aux, int threshold) {
+            this.u = u;
+            this.v = v;
+            this.ord = ord;
+            this.aux = aux;
+            this.threshold = threshold;
+        }
+
+        // Order used by a merge: (u, v, index) while sorting, v alone inside the recursion
+        boolean before(int p, int q, boolean byU) {
+            return byU ? ClosestPair.lessByU(u, v, p, q) : v[p] < v[q];
+        }
+    }
+
+    // Merges ord[lo1, hi1) and ord[lo2, hi2) into aux starting at 'at', splitting the larger run.
+    // Stable: on ties the element of run 1 comes first
+    private static final class MergeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        final Points pts;
+        final int lo1, hi1, lo2, hi2, at;
+        final boolean byU;
+
+        MergeTask(Points pts, int lo1, int hi1, int lo2, int hi2, int at, boolean byU) {
+            this.pts = pts;
+            this.lo1 = lo1;
+            this.hi1 = hi1;
+            this.lo2 = lo2;
+            this.hi2 = hi2;
+            this.at = at;
+            this.byU = byU;
+        }
+
+        @Override
+        protected void compute() {
+            int[] ord = pts.ord, aux = pts.aux;
+            if ((hi1 - lo1) + (hi2 - lo2) <= pts.threshold) {
+                int a = lo1, b = lo2, k = at;
+                while (a < hi1 && b < hi2) {
+                    aux[k++] = pts.before(ord[b], ord[a], byU) ? ord[b++] : ord[a++];
+                }
+                while (a < hi1) {
+                    aux[k++] = ord[a++];
+                }
+                while (b < hi2) {
+                    aux[k++] = ord[b++];
+                }
+                return;
+            }
+            // Split the larger run at its middle. Elements of the other run equal to the pivot go
+            // after it when the pivot is from run 1 and before it when it is from run 2
+            int m1, m2, pivot;
+            if (hi1 - lo1 >= hi2 - lo2) {
+                m1 = (lo1 + hi1) >>> 1;
+                pivot = ord[m1];
+                m2 = split(lo2, hi2, pivot, false);
+            } else {
+                m2 = (lo2 + hi2) >>> 1;
+                pivot = ord[m2];
+                m1 = split(lo1, hi1, pivot, true);
+            }
+            int pivotAt = at + (m1 - lo1) + (m2 - lo2);
+            aux[pivotAt] = pivot;
+            boolean pivotInRun1 = hi1 - lo1 >= hi2 - lo2;
+            invokeAll(new MergeTask(pts, lo1, m1, lo2, m2, at, byU),
+                    new MergeTask(pts, pivotInRun1 ? m1 + 1 : m1, hi1, pivotInRun1 ? m2 : m2 + 1, hi2, pivotAt + 1,
+                            byU));
+        }
+
+        // Function to find the first position in ord[lo, hi) not before the pivot, or with
+        // afterTies the first position strictly after it
+        private int split(int lo, int hi, int pivot, boolean afterTies) {
+            int[] ord = pts.ord;
+            while (lo < hi) {
+                int m = (lo + hi) >>> 1;
+                boolean left = afterTies ? !pts.before(pivot, ord[m], byU) : pts.before(ord[m], pivot, byU);
+                if (left) {
+                    lo = m + 1;
+                } else {
+                    hi = m;
+                }
+            }
+            return lo;
+        }
+    }
+
+    // Function to merge ord[lo, mid) and ord[mid, hi) in parallel and copy the result back
+    private static void parallelMerge(Points pts, int lo, int mid, int hi, boolean byU) {
+        new MergeTask(pts, lo, mid, mid, hi, lo, byU).invoke();
+        System.arraycopy(pts.aux, lo, pts.ord, lo, hi - lo);
+    }
+
+    // Parallel merge sort of ord[lo, hi) by (u, v, index)
+    private static final class SortTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        final Points pts;
+        final int lo, hi;
+
+        SortTask(Points pts, int lo, int hi) {
+            this.pts = pts;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo <= pts.threshold) {
+                ClosestPair.sortByU(pts.u, pts.v, pts.ord, pts.aux, lo, hi);
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            invokeAll(new SortTask(pts, lo, mid), new SortTask(pts, mid, hi));
+            parallelMerge(pts, lo, mid, hi, true);
+        }
+    }
+
+    // Scans strip[from, to) against the rest of the strip with a fixed bound
+    private static final class StripTask extends RecursiveTask<ClosestPair.Pair> {
+        private static final long serialVersionUID = 1L;
+
+        final Points pts;
+        final int stripLo, stripHi, from, to;
+        final long bound;
+
+        StripTask(Points pts, int stripLo, int stripHi, int from, int to, long bound) {
+            this.pts = pts;
+            this.stripLo = stripLo;
+            this.stripHi = stripHi;
+            this.from = from;
+            this.to = to;
+            this.bound = bound;
+        }
+
+        @Override
+        protected ClosestPair.Pair compute() {
+            if (to - from > pts.threshold) {
+                int mid = (from + to) >>> 1;
+                StripTask left = new StripTask(pts, stripLo, stripHi, from, mid, bound);
+                left.fork();
+                ClosestPair.Pair best = new StripTask(pts, stripLo, stripHi, mid, to, bound).compute();
+                best.offer(left.join());
+                return best;
+            }
+            // Each chunk may only tighten its own bound, so the combined result does not
+            // depend on how the strip was cut
+            ClosestPair.Pair best = new ClosestPair.Pair();
+            best.distance = bound;
+            best.i = Integer.MAX_VALUE;
+            best.j = Integer.MAX_VALUE;
+            int[] strip = pts.aux;
+            for (int a = from; a < to; a++) {
+                int p = strip[a];
+                for (int b = a + 1; b < stripHi && pts.v[strip[b]] - pts.v[p] <= best.distance; b++) {
+                    best.offer(ClosestPair.distance(pts.u, pts.v, p, strip[b]), p, strip[b]);
+                }
+            }
+            return best;
+        }
+    }
+
+    // Divide and conquer on u; halves and strip chunks run in parallel
+    private static final class SolveTask extends RecursiveTask<ClosestPair.Pair> {
+        private static final long serialVersionUID = 1L;
+
+        final Points pts;
+        final int lo, hi;
+
+        SolveTask(Points pts, int lo, int hi) {
+            this.pts = pts;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected ClosestPair.Pair compute() {
+            if (hi - lo <= pts.threshold) {
+                return ClosestPair.solve(pts.u, pts.v, pts.ord, pts.aux, lo, hi);
+            }
+            int mid = (lo + hi) >>> 1;
+            long midU = pts.u[pts.ord[mid]];
+            SolveTask left = new SolveTask(pts, lo, mid);
+            left.fork();
+            ClosestPair.Pair best = new SolveTask(pts, mid, hi).compute();
+            best.offer(left.join());
+
+            parallelMerge(pts, lo, mid, hi, false);
+
+            // Collect the strip (in v order) into aux[lo, lo + size)
+            int size = 0;
+            for (int k = lo; k < hi; k++) {
+                if (Math.abs(pts.u[pts.ord[k]] - midU) <= best.distance) {
+                    pts.aux[lo + size++] = pts.ord[k];
+                }
+            }
+            ClosestPair.Pair across = new StripTask(pts, lo, lo + size, lo, lo + size, best.distance).compute();
+            if (across.i != Integer.MAX_VALUE) {
+                best.offer(across);
+            }
+            return best;
+        }
+    }
+
+    // Function to find the closest pair on the given pool; returns the same int[2] as findClosestPair
+    public static int[] findClosestPair(int[] xCoords, int[] yCoords, ForkJoinPool pool) {
+        return findClosestPair(xCoords, yCoords, pool, THRESHOLD);
+    }
+
+    // Same search with ranges split down to threshold elements; small thresholds exercise the
+    // parallel merge, strip and solve paths on inputs small enough to check by brute force
+    static int[] findClosestPair(int[] xCoords, int[] yCoords, ForkJoinPool pool, int threshold) {
+        if (threshold < 2) {
+            throw new IllegalArgumentException("threshold must be at least 2");
+        }
+        int n = xCoords.length;
+        if (n < 2) {
+            return new int[2];
+        }
+
+        long[] u = new long[n];
+        long[] v = new long[n];
+        int[] ord = new int[n];
+        for (int i = 0; i < n; i++) {
+            u[i] = (long) xCoords[i] + yCoords[i];
+            v[i] = (long) xCoords[i] - yCoords[i];
+            ord[i] = i;
+        }
+        Points pts = new Points(u, v, ord, new int[n], threshold);
+        pool.invoke(new SortTask(pts, 0, n));
+
+        // Coincident points are adjacent in (u, v, index) order and always win with distance 0
+        ClosestPair.Pair duplicates = new ClosestPair.Pair();
+        for (int k = 1; k < n; k++) {
+            int a = ord[k - 1], b = ord[k];
+            if (u[a] == u[b] && v[a] == v[b]) {
+                duplicates.offer(0, a, b);
+            }
+        }
+        if (duplicates.distance == 0) {
+            return new int[] { duplicates.i, duplicates.j };
+        }
+
+        ClosestPair.Pair best = pool.invoke(new SolveTask(pts, 0, n));
+        return new int[] { best.i, best.j };
+    }
+
+    public static int[] findClosestPair(int[] xCoords, int[] yCoords, int parallelism) {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            return findClosestPair(xCoords, yCoords, pool);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    public static void main(String[] args) {
+        // Test Case 1: random inputs against the double loop, with leaves of 2 to 5 points so every
+        // parallel task splits
+        Random random = new Random(9);
+        ForkJoinPool testPool = new ForkJoinPool(4);
+        int mismatches = 0;
+        for (int trial = 0; trial < 300; trial++) {
+            int n = 2 + random.nextInt(trial < 150 ? 40 : 400);
+            int range = 1 + random.nextInt(trial % 2 == 0 ? 50 : 5000);
+            int[] xs = new int[n], ys = new int[n];
+            for (int i = 0; i < n; i++) {
+                xs[i] = random.nextInt(range);
+                ys[i] = random.nextInt(range);
+            }
+            int[] expected = ClosestPair.findClosestPair(xs, ys);
+            if (!Arrays.equals(expected, findClosestPair(xs, ys, testPool, 2 + trial % 4))
+                    || !Arrays.equals(expected, findClosestPair(xs, ys, 1 + trial % 4))) {
+                mismatches++;
+            }
+        }
+        testPool.shutdown();
+        System.out.println("Test Case 1:");
+        System.out.println("Random mismatches: " + mismatches); // Expected: 0
+
+        // Test Case 2: large inputs (random and tie-heavy lattice) at several parallelism levels
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 500_000;
+        int[] xs = new int[n], ys = new int[n], gx = new int[n], gy = new int[n];
+        for (int i = 0; i < n; i++) {
+            xs[i] = random.nextInt();
+            ys[i] = random.nextInt();
+            gx[i] = (i % 1500) * 3;
+            gy[i] = (i / 1500) * 3;
+        }
+        System.out.println("\nTest Case 2:");
+        for (int[][] input : new int[][][] { { xs, ys }, { gx, gy } }) {
+            long start = System.nanoTime();
+            int[] expected = ClosestPair.findClosestPairFast(input[0], input[1]);
+            System.out.printf("sequential: %6d ms %s%n", (System.nanoTime() - start) / 1_000_000,
+                    Arrays.toString(expected));
+            for (int threads = 1; threads <= 8; threads *= 2) {
+                start = System.nanoTime();
+                int[] result = findClosestPair(input[0], input[1], threads);
+                System.out.printf("%2d threads: %6d ms %s %s%n", threads, (System.nanoTime() - start) / 1_000_000,
+                        Arrays.toString(result), Arrays.equals(result, expected) ? "MATCH" : "MISMATCH");
+            }
+        }
+    }
+}
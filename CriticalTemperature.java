@@ -33,6 +33,106 @@ public class CriticalTemperature {
         return dp[k][n];
     }
 
+    // Function to fill one DP row from the previous one in O(n). For a fixed row the best test
+    // level x never moves left as j grows: dp[i - 1][x - 1] rises with x while dp[i][j - x] falls,
+    // so the optimum is where they cross and that crossing only moves right
+    private static void fillRow(int[] previous, int[] current, int n) {
+        current[0] = 0;
+        int x = 1;
+        for (int j = 1; j <= n; j++) {
+            // Advance while the next split is no worse than the current one
+            while (x < j && Math.max(previous[x], current[j - x - 1]) <= Math.max(previous[x - 1], current[j - x])) {
+                x++;
+            }
+            current[j] = 1 + Math.max(previous[x - 1], current[j - x]);
+        }
+    }
+
+    // Function to build the full dp[i][j] table (same values as findMinMeasurements) in O(k * n)
+    public static int[][] measurementTable(int k, int n) {
+        int[][] dp = new int[k + 1][n + 1];
+        if (k >= 1) {
+            for (int j = 1; j <= n; j++) {
+                dp[1][j] = j;
+            }
+        }
+        for (int i = 2; i <= k; i++) {
+            fillRow(dp[i - 1], dp[i], n);
+        }
+        return dp;
+    }
+
+    // Function to return only the last row dp[k][0..n], keeping two rolling rows
+    public static int[] measurementRow(int k, int n) {
+        int[] previous = new int[n + 1];
+        int[] current = new int[n + 1];
+        if (k >= 1) {
+            for (int j = 1; j <= n; j++) {
+                current[j] = j;
+            }
+        }
+        for (int i = 2; i <= k; i++) {
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+            fillRow(previous, current, n);
+        }
+        return current;
+    }
+
+    // Function to count the temperature levels that m measurements with k samples can cover:
+    // f(m, k) = C(m, 1) + C(m, 2) + ... + C(m, k), capped at limit so it never overflows
+    static long coverage(long m, int k, long limit) {
+        long sum = 0;
+        long term = 1; // C(m, 0)
+        for (int i = 1; i <= k && i <= m; i++) {
+            // C(m, i) = C(m, i - 1) * (m - i + 1) / i, divided first so it stays exact in a long
+            long g = gcd(term, i);
+            long factor = (m - i + 1) / (i / g);
+            long reduced = term / g;
+            if (reduced > limit / factor) {
+                return limit;
+            }
+            term = reduced * factor;
+            if (term >= limit - sum) {
+                return limit;
+            }
+            sum += term;
+        }
+        return sum;
+    }
+
+    private static long gcd(long a, long b) {
+        while (b != 0) {
+            long t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+
+    // Function to find the minimum number of measurements in O(k log k log n) time and O(1) extra memory,
+    // using the inverse formulation: the smallest m whose coverage f(m, k) reaches n; the binary search
+    // makes O(log n) coverage calls of up to k binomial steps, each with an O(log k) gcd against i <= k
+    public static long findMinMeasurements(int k, long n) {
+        if (n <= 0) {
+            return 0;
+        }
+        if (k < 1) {
+            throw new IllegalArgumentException("At least one sample is needed");
+        }
+        long low = 1, high = n; // f(n, k) >= n for any k >= 1
+        while (low < high) {
+            long mid = low + (high - low) / 2;
+            if (coverage(mid, k, n) >= n) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+
     // Main function to test the implementation
     public static void main(String[] args) {
         int[][] testCases = {
@@ -55,5 +155,37 @@ public class CriticalTemperature {
             System.out.println("Result: " + (result == expected ? "PASS" : "FAIL"));
             System.out.println();
         }
+
+        // Cross-check the binary-search solver against the DP table for small inputs
+        int mismatches = 0;
+        for (int k = 1; k <= 8; k++) {
+            for (int n = 0; n <= 300; n++) {
+                if (findMinMeasurements(k, (long) n) != findMinMeasurements(k, n)) {
+                    mismatches++;
+                    System.out.println("Mismatch: k = " + k + ", n = " + n);
+                }
+            }
+        }
+        System.out.println("Cross-check (k <= 8, n <= 300): " + (mismatches == 0 ? "PASS" : "FAIL"));
+
+        // Cross-check the O(k * n) table against the original triple loop, cell by cell
+        int[][] table = measurementTable(6, 120);
+        int[] lastRow = measurementRow(6, 120);
+        int tableMismatches = 0;
+        for (int i = 1; i <= 6; i++) {
+            for (int j = 0; j <= 120; j++) {
+                if (table[i][j] != findMinMeasurements(i, j) || (i == 6 && lastRow[j] != table[i][j])) {
+                    tableMismatches++;
+                }
+            }
+        }
+        System.out.println("Table mode (k <= 6, n <= 120): " + (tableMismatches == 0 ? "PASS" : "FAIL"));
+        System.out.println("Last row k = 4, n = 1000000: dp[4][1000000] = " + measurementRow(4, 1_000_000)[1_000_000]
+                + " (expected " + findMinMeasurements(4, 1_000_000L) + ")");
+
+        // Inputs far beyond the DP table
+        System.out.println("k = 2, n = 10^18: " + findMinMeasurements(2, 1_000_000_000_000_000_000L)); // Expected: 1414213562
+        System.out.println("k = 1, n = 10^18: " + findMinMeasurements(1, 1_000_000_000_000_000_000L)); // Expected: 10^18
+        System.out.println("k = 64, n = Long.MAX_VALUE: " + findMinMeasurements(64, Long.MAX_VALUE)); // Expected: 63
     }
 }
\ No newline at end of file
@@ -0,0 +1,201 @@
+//Question 1a - Adaptive measurement plans backed by a shared coverage table
+
+import java.util.Arrays;
+import java.util.Random;
+
+public class CriticalTemperaturePlanner {
+
+    private final long maxLevels; // Largest n the planner answers
+    private final int maxSamples; // Sample counts above this behave like binary search
+    // coverage[k][m] = f(m, k) for k >= 3, saturated at maxLevels; rows end where they saturate
+    private final long[][] coverage;
+
+    public CriticalTemperaturePlanner(long maxLevels) {
+        if (maxLevels < 1) {
+            throw new IllegalArgumentException("maxLevels must be positive");
+        }
+        this.maxLevels = maxLevels;
+        // With at least bitLength(maxLevels) samples the answer is the same as with unlimited samples
+        this.maxSamples = Math.max(2, 64 - Long.numberOfLeadingZeros(maxLevels));
+        this.coverage = new long[maxSamples + 1][];
+
+        // f(m, k) = f(m - 1, k - 1) + 1 + f(m - 1, k); rows 1 and 2 use closed forms instead
+        for (int k = 3; k <= maxSamples; k++) {
+            long[] row = new long[16];
+            int m = 0;
+            while (row[m] < maxLevels) {
+                m++;
+                if (m == row.length) {
+                    row = Arrays.copyOf(row, m * 2);
+                }
+                row[m] = saturatedSum(coverage(m - 1, k - 1), 1, row[m - 1]);
+            }
+            coverage[k] = Arrays.copyOf(row, m + 1);
+        }
+    }
+
+    private long saturatedSum(long a, long b, long c) {
+        long sum = a + b;
+        if (sum >= maxLevels || c >= maxLevels - sum) {
+            return maxLevels;
+        }
+        return sum + c;
+    }
+
+    // Function to return f(m, k), the levels m measurements with k samples can resolve (capped)
+    long coverage(long m, int k) {
+        if (m <= 0 || k <= 0) {
+            return 0;
+        }
+        k = Math.min(k, maxSamples);
+        if (k == 1) {
+            return Math.min(m, maxLevels);
+        }
+        if (k == 2) {
+            // m (m + 1) / 2 with the halving done first and a 128-bit overflow check
+            long a = m % 2 == 0 ? m / 2 : m;
+            long b = m % 2 == 0 ? m + 1 : (m + 1) / 2;
+            if (Math.multiplyHigh(a, b) != 0 || a * b < 0) {
+                return maxLevels;
+            }
+            return Math.min(a * b, maxLevels);
+        }
+        long[] row = coverage[k];
+        return m < row.length ? row[(int) m] : maxLevels;
+    }
+
+    // Function to find the minimum number of measurements in O(log n) using the shared table
+    public long minMeasurements(int k, long n) {
+        if (n <= 0) {
+            return 0;
+        }
+        if (k < 1) {
+            throw new IllegalArgumentException("At least one sample is needed");
+        }
+        if (n > maxLevels) {
+            throw new IllegalArgumentException("n exceeds the planner's maxLevels");
+        }
+        long low = 1, high = Math.min(k, maxSamples) >= 3 ? coverage[Math.min(k, maxSamples)].length - 1 : n;
+        while (low < high) {
+            long mid = low + (high - low) / 2;
+            if (coverage(mid, k) >= n) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+
+    // Function to pick the next temperature to test when levels [low, high] are still
+    // undecided and k samples are left; a reaction means the critical level is at or below it
+    public long nextTemperature(int k, long low, long high) {
+        long n = high - low + 1;
+        long m = minMeasurements(k, n);
+        // Test where the levels below can still be resolved with k - 1 samples and m - 1 measurements
+        long below = coverage(m - 1, k - 1);
+        return low + Math.min(below, n - 1);
+    }
+
+    // One adaptive run of the plan; the caller reports each outcome
+    class Session {
+        private int samples;
+        private long low, high; // Undecided levels
+        private long measurements;
+
+        Session(int samples, long levels) {
+            this.samples = samples;
+            this.low = 1;
+            this.high = levels;
+        }
+
+        public boolean isDone() {
+            return low > high;
+        }
+
+        public long next() {
+            return nextTemperature(samples, low, high);
+        }
+
+        public void record(long temperature, boolean reacted) {
+            measurements++;
+            if (reacted) {
+                samples--;
+                high = temperature - 1;
+            } else {
+                low = temperature + 1;
+            }
+        }
+
+        // Lowest level that reacts, or levels + 1 if none does
+        public long criticalTemperature() {
+            return low;
+        }
+
+        public long measurements() {
+            return measurements;
+        }
+    }
+
+    public Session start(int samples, long levels) {
+        if (levels > maxLevels) {
+            throw new IllegalArgumentException("levels exceed the planner's maxLevels");
+        }
+        return new Session(samples, levels);
+    }
+
+    public static void main(String[] args) {
+        CriticalTemperaturePlanner planner = new CriticalTemperaturePlanner(1_000_000_000_000_000_000L);
+
+        // Test Case 1: minimum counts match the DP
+        int[][] testCases = { { 1, 2, 2 }, { 2, 6, 3 }, { 3, 14, 4 } };
+        for (int[] testCase : testCases) {
+            System.out.println("k = " + testCase[0] + ", n = " + testCase[1] + ": "
+                    + planner.minMeasurements(testCase[0], testCase[1]) + " (expected " + testCase[2] + ")");
+        }
+
+        // Test Case 2: every critical level is found within the minimum number of measurements
+        boolean allPass = true;
+        for (int k = 1; k <= 5; k++) {
+            for (int n = 1; n <= 120; n++) {
+                long budget = CriticalTemperature.findMinMeasurements(k, n);
+                for (int critical = 1; critical <= n + 1; critical++) {
+                    Session session = planner.start(k, n);
+                    while (!session.isDone()) {
+                        long t = session.next();
+                        session.record(t, t >= critical);
+                    }
+                    if (session.criticalTemperature() != critical || session.measurements() > budget
+                            || session.samples < 0) {
+                        allPass = false;
+                    }
+                }
+            }
+        }
+        System.out.println("\nAdaptive plans (k <= 5, n <= 120): " + (allPass ? "PASS" : "FAIL"));
+
+        // Test Case 3: a plan over 10^18 levels
+        Session session = planner.start(8, 1_000_000_000_000_000_000L);
+        long critical = 123_456_789_012_345L;
+        while (!session.isDone()) {
+            long t = session.next();
+            session.record(t, t >= critical);
+        }
+        System.out.println("Found " + session.criticalTemperature() + " in " + session.measurements()
+                + " measurements (worst case " + planner.minMeasurements(8, 1_000_000_000_000_000_000L) + ")");
+
+        // Test Case 4: query throughput after warm-up
+        Random random = new Random(1);
+        int queries = 1_000_000;
+        long checksum = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < queries; i++) {
+            int k = 1 + random.nextInt(10);
+            long n = 1 + Math.floorMod(random.nextLong(), 1_000_000_000_000_000_000L);
+            checksum += planner.minMeasurements(k, n);
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("%d queries in %d ms (%.0f queries/s, checksum %d)%n", queries, elapsed / 1_000_000,
+                queries / (elapsed / 1e9), checksum);
+    }
+}
@@ -0,0 +1,307 @@
+//4a - Hashtag / user / per-day indexes for ad-hoc trending queries
+
+import java.time.LocalDate;
+import java.util.*;
+
+public class HashtagIndex {
+
+    // Date-sorted postings of (day, value) pairs, varint encoded with day deltas
+    // and a skip entry every SKIP postings so range queries can jump to their start day
+    static class Postings {
+        private static final int SKIP = 64;
+
+        private final boolean deltaValues; // Store value deltas (for increasing values such as row numbers)
+        private byte[] data = new byte[16];
+        private int length;
+        private int count;
+        private int lastDay, lastValue;
+
+        // Skip entry j describes posting j * SKIP: its day, byte offset and the state before it
+        private int[] skipDays = new int[1], skipOffsets = new int[1], skipPrevDays = new int[1],
+                skipPrevValues = new int[1];
+
+        Postings(boolean deltaValues) {
+            this.deltaValues = deltaValues;
+        }
+
+        // Function to append a posting; days must be non-decreasing
+        void add(int day, int value) {
+            if (count % SKIP == 0) {
+                int j = count / SKIP;
+                if (j == skipDays.length) {
+                    skipDays = Arrays.copyOf(skipDays, j * 2);
+                    skipOffsets = Arrays.copyOf(skipOffsets, j * 2);
+                    skipPrevDays = Arrays.copyOf(skipPrevDays, j * 2);
+                    skipPrevValues = Arrays.copyOf(skipPrevValues, j * 2);
+                }
+                skipDays[j] = day;
+                skipOffsets[j] = length;
+                skipPrevDays[j] = lastDay;
+                skipPrevValues[j] = lastValue;
+            }
+            writeVarInt(count == 0 ? day : day - lastDay);
+            writeVarInt(deltaValues ? value - lastValue : value);
+            lastDay = day;
+            lastValue = value;
+            count++;
+        }
+
+        private void writeVarInt(int value) {
+            if (length + 5 > data.length) {
+                data = Arrays.copyOf(data, data.length * 2);
+            }
+            // Zig-zag so that the first (absolute) day of negative epochs stays short
+            int v = (value << 1) ^ (value >> 31);
+            while ((v & ~0x7F) != 0) {
+                data[length++] = (byte) ((v & 0x7F) | 0x80);
+                v >>>= 7;
+            }
+            data[length++] = (byte) v;
+        }
+
+        int size() {
+            return count;
+        }
+
+        int bytes() {
+            return length;
+        }
+
+        // Function to open a cursor at the first posting that can have day >= fromDay
+        Cursor seek(int fromDay) {
+            int blocks = (count + SKIP - 1) / SKIP;
+            int lo = 0, hi = blocks - 1, start = 0;
+            while (lo <= hi) { // Last skip entry whose day is still before fromDay
+                int mid = (lo + hi) >>> 1;
+                if (skipDays[mid] < fromDay) {
+                    start = mid;
+                    lo = mid + 1;
+                } else {
+                    hi = mid - 1;
+                }
+            }
+            Cursor cursor = new Cursor();
+            if (blocks > 0) {
+                cursor.position = skipOffsets[start];
+                cursor.index = start * SKIP;
+                cursor.day = skipPrevDays[start];
+                cursor.value = skipPrevValues[start];
+            }
+            return cursor;
+        }
+
+        class Cursor {
+            int position, index;
+            int day, value;
+
+            boolean next() {
+                if (index == count) {
+                    return false;
+                }
+                int dayDelta = readVarInt();
+                int valueField = readVarInt();
+                day = index == 0 ? dayDelta : day + dayDelta;
+                value = deltaValues ? value + valueField : valueField;
+                index++;
+                return true;
+            }
+
+            private int readVarInt() {
+                int v = 0, shift = 0;
+                byte b;
+                do {
+                    b = data[position++];
+                    v |= (b & 0x7F) << shift;
+                    shift += 7;
+                } while (b < 0);
+                return (v >>> 1) ^ -(v & 1);
+            }
+        }
+    }
+
+    private final HashtagTokenizer.HashtagDictionary dictionary = new HashtagTokenizer.HashtagDictionary();
+    private final List<Postings> tweetPostings = new ArrayList<>(); // hashtag id -> (day, row)
+    private final List<Postings> dailyCounts = new ArrayList<>(); // hashtag id -> (day, count)
+    private final Map<Integer, Postings> userPostings = new HashMap<>(); // user id -> (day, hashtag id)
+    private final int[] rowTweetIds; // row (date order) -> tweet id
+
+    // Open day of each hashtag's rollup, flushed when the day changes
+    private int[] openDay = new int[16], openCount = new int[16];
+
+    public HashtagIndex(List<TrendingHashtags.Tweet> tweets) {
+        // Rows are the tweets in date order, so every postings list is date-sorted
+        long[] order = new long[tweets.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = (tweets.get(i).tweetDate.toEpochDay() << 32) | i;
+        }
+        Arrays.sort(order);
+
+        rowTweetIds = new int[order.length];
+        for (int row = 0; row < order.length; row++) {
+            TrendingHashtags.Tweet tweet = tweets.get((int) order[row]);
+            rowTweetIds[row] = tweet.tweetId;
+            int day = (int) tweet.tweetDate.toEpochDay();
+            Postings user = userPostings.computeIfAbsent(tweet.userId, u -> new Postings(false));
+            final int r = row;
+
+            HashtagTokenizer.scan(tweet.tweet, (text, start, end) -> {
+                int id = dictionary.idOf(text, start, end);
+                if (id == tweetPostings.size()) {
+                    tweetPostings.add(new Postings(true));
+                    dailyCounts.add(new Postings(false));
+                    if (id == openDay.length) {
+                        openDay = Arrays.copyOf(openDay, id * 2);
+                        openCount = Arrays.copyOf(openCount, id * 2);
+                    }
+                } else if (openDay[id] != day) {
+                    dailyCounts.get(id).add(openDay[id], openCount[id]);
+                    openCount[id] = 0;
+                }
+                openDay[id] = day;
+                openCount[id]++;
+
+                tweetPostings.get(id).add(day, r);
+                user.add(day, id);
+            });
+        }
+        for (int id = 0; id < dailyCounts.size(); id++) {
+            dailyCounts.get(id).add(openDay[id], openCount[id]);
+        }
+        openDay = null;
+        openCount = null;
+    }
+
+    // Id of a hashtag, or -1 if it never appeared
+    private int find(String hashtag) {
+        return dictionary.find(hashtag, 0, hashtag.length());
+    }
+
+    // Function to find the top K hashtags used by one user between two dates (inclusive)
+    public List<Map.Entry<String, Integer>> topHashtagsForUser(int userId, LocalDate from, LocalDate to, int k) {
+        Postings postings = userPostings.get(userId);
+        if (postings == null) {
+            return new ArrayList<>();
+        }
+        int fromDay = (int) from.toEpochDay(), toDay = (int) to.toEpochDay();
+
+        Map<Integer, Integer> counts = new HashMap<>();
+        Postings.Cursor cursor = postings.seek(fromDay);
+        while (cursor.next() && cursor.day <= toDay) {
+            if (cursor.day >= fromDay) {
+                counts.merge(cursor.value, 1, Integer::sum);
+            }
+        }
+
+        List<Map.Entry<String, Integer>> result = new ArrayList<>(counts.size());
+        for (Map.Entry<Integer, Integer> entry : counts.entrySet()) {
+            result.add(new AbstractMap.SimpleImmutableEntry<>(dictionary.hashtag(entry.getKey()), entry.getValue()));
+        }
+        result.sort(TrendingHashtags.TRENDING_ORDER);
+        return result.subList(0, Math.min(k, result.size()));
+    }
+
+    // Function to return the per-day count series of a hashtag between two dates (inclusive)
+    public SortedMap<LocalDate, Integer> dailyCounts(String hashtag, LocalDate from, LocalDate to) {
+        SortedMap<LocalDate, Integer> series = new TreeMap<>();
+        int id = find(hashtag);
+        if (id < 0) {
+            return series;
+        }
+        int fromDay = (int) from.toEpochDay(), toDay = (int) to.toEpochDay();
+        Postings.Cursor cursor = dailyCounts.get(id).seek(fromDay);
+        while (cursor.next() && cursor.day <= toDay) {
+            if (cursor.day >= fromDay) {
+                series.put(LocalDate.ofEpochDay(cursor.day), cursor.value);
+            }
+        }
+        return series;
+    }
+
+    // Function to return the ids of tweets using a hashtag between two dates, in date order
+    public int[] tweetsWithHashtag(String hashtag, LocalDate from, LocalDate to) {
+        int id = find(hashtag);
+        if (id < 0) {
+            return new int[0];
+        }
+        int fromDay = (int) from.toEpochDay(), toDay = (int) to.toEpochDay();
+        int[] result = new int[8];
+        int size = 0, lastRow = -1;
+        Postings.Cursor cursor = tweetPostings.get(id).seek(fromDay);
+        while (cursor.next() && cursor.day <= toDay) {
+            if (cursor.day >= fromDay && cursor.value != lastRow) { // A tag repeated in one tweet counts once here
+                if (size == result.length) {
+                    result = Arrays.copyOf(result, size * 2);
+                }
+                result[size++] = rowTweetIds[cursor.value];
+                lastRow = cursor.value;
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    // Bytes used by all compressed postings lists
+    public long postingsBytes() {
+        long bytes = 0;
+        for (int id = 0; id < tweetPostings.size(); id++) {
+            bytes += tweetPostings.get(id).bytes() + dailyCounts.get(id).bytes();
+        }
+        for (Postings postings : userPostings.values()) {
+            bytes += postings.bytes();
+        }
+        return bytes;
+    }
+
+    public static void main(String[] args) {
+        List<TrendingHashtags.Tweet> tweets = Arrays.asList(
+                new TrendingHashtags.Tweet(135, 13, LocalDate.of(2024, 2, 1),
+                        "Enjoying a great start to the day. #HappyDay #MorningVibes"),
+                new TrendingHashtags.Tweet(136, 14, LocalDate.of(2024, 2, 3), "Another #HappyDay with good vibes! #FeelGood"),
+                new TrendingHashtags.Tweet(137, 15, LocalDate.of(2024, 2, 4), "Productivity peaks! #Worklife #ProductiveDay"),
+                new TrendingHashtags.Tweet(138, 16, LocalDate.of(2024, 2, 4), "Exploring new tech frontiers. #TechLife #Innovation"),
+                new TrendingHashtags.Tweet(139, 17, LocalDate.of(2024, 2, 5), "Gratitude for today's moments. #HappyDay #Thankful"),
+                new TrendingHashtags.Tweet(140, 18, LocalDate.of(2024, 2, 7), "Innovation drives us. #TechLife #FutureTech"),
+                new TrendingHashtags.Tweet(141, 19, LocalDate.of(2024, 2, 9), "Connecting with nature's serenity. #Nature #Peaceful"),
+                new TrendingHashtags.Tweet(135, 20, LocalDate.of(2024, 2, 10), "Back at it #HappyDay #TechLife #HappyDay"));
+        HashtagIndex index = new HashtagIndex(tweets);
+
+        // Test Case 1: top hashtags of user 135 in February
+        System.out.println("Test Case 1:");
+        System.out.println("Output: " + index.topHashtagsForUser(135, LocalDate.of(2024, 2, 1), LocalDate.of(2024, 2, 29), 3));
+        // Expected: [#HappyDay=3, #TechLife=1, #MorningVibes=1]
+
+        // Test Case 2: daily series of #HappyDay
+        System.out.println("\nTest Case 2:");
+        System.out.println("Output: " + index.dailyCounts("#HappyDay", LocalDate.of(2024, 2, 2), LocalDate.of(2024, 2, 10)));
+        // Expected: {2024-02-03=1, 2024-02-05=1, 2024-02-10=2}
+
+        // Test Case 3: tweets with #TechLife
+        System.out.println("\nTest Case 3:");
+        System.out.println("Output: " + Arrays.toString(index.tweetsWithHashtag("#TechLife", LocalDate.of(2024, 1, 1),
+                LocalDate.of(2024, 12, 31)))); // Expected: [16, 18, 20]
+
+        // Test Case 4: skip entries on a long postings list agree with a full scan
+        List<TrendingHashtags.Tweet> many = new ArrayList<>();
+        Random random = new Random(5);
+        for (int i = 0; i < 20000; i++) {
+            many.add(new TrendingHashtags.Tweet(random.nextInt(20), i, LocalDate.of(2024, 1, 1).plusDays(random.nextInt(366)),
+                    "#Daily #Tag" + random.nextInt(30)));
+        }
+        HashtagIndex big = new HashtagIndex(many);
+        LocalDate from = LocalDate.of(2024, 6, 1), to = LocalDate.of(2024, 6, 30);
+        int expected = 0;
+        for (TrendingHashtags.Tweet tweet : many) {
+            if (!tweet.tweetDate.isBefore(from) && !tweet.tweetDate.isAfter(to)) {
+                expected++;
+            }
+        }
+        int fromSeries = 0;
+        for (int count : big.dailyCounts("#Daily", from, to).values()) {
+            fromSeries += count;
+        }
+        System.out.println("\nTest Case 4:");
+        System.out.println("June #Daily: " + fromSeries + " (expected " + expected + "), postings: "
+                + big.postingsBytes() + " bytes for " + many.size() + " tweets");
+        System.out.println("June #Daily tweets: " + big.tweetsWithHashtag("#Daily", from, to).length);
+        System.out.println("Unknown hashtag: " + big.dailyCounts("#Missing", from, to)); // Expected: {}
+    }
+}
@@ -0,0 +1,206 @@
+//4a - Single-pass hashtag tokenizer (no per-word allocation)
+
+import java.util.Arrays;
+
+public class HashtagTokenizer {
+
+    // Receives each hashtag as the span [start, end) of the scanned text, '#' included
+    interface HashtagSink {
+        void accept(CharSequence text, int start, int end);
+    }
+
+    // Function to check whether a code point can be part of a hashtag body
+    static boolean isHashtagChar(int cp) {
+        if (Character.isLetterOrDigit(cp) || cp == '_') {
+            return true;
+        }
+        int type = Character.getType(cp);
+        // Combining marks (e.g. Devanagari vowel signs) and joiners belong to the word they follow
+        return type == Character.NON_SPACING_MARK || type == Character.COMBINING_SPACING_MARK
+                || type == Character.ENCLOSING_MARK || cp == 0x200C || cp == 0x200D;
+    }
+
+    // '#' or the full-width number sign U+FF03
+    private static boolean isHashMark(char c) {
+        return c == '#' || c == '\uFF03';
+    }
+
+    // Function to scan the text once and report every hashtag span
+    public static void scan(CharSequence text, HashtagSink sink) {
+        int length = text.length();
+        int i = 0;
+        boolean afterWordChar = false; // A '#' glued to a word (e.g. "C#5") does not start a hashtag
+
+        while (i < length) {
+            char c = text.charAt(i);
+            if (isHashMark(c) && !afterWordChar) {
+                // Read the body: letters, digits, '_' and marks, stopping at space or punctuation
+                int end = i + 1;
+                boolean hasNonDigit = false;
+                while (end < length) {
+                    int cp = Character.codePointAt(text, end);
+                    if (!isHashtagChar(cp)) {
+                        break;
+                    }
+                    if (!Character.isDigit(cp)) {
+                        hasNonDigit = true;
+                    }
+                    end += Character.charCount(cp);
+                }
+                // Purely numeric tags like "#1" are not hashtags
+                if (hasNonDigit) {
+                    sink.accept(text, i, end);
+                }
+                afterWordChar = end > i + 1;
+                i = end;
+                continue;
+            }
+
+            int cp = Character.codePointAt(text, i);
+            afterWordChar = isHashtagChar(cp);
+            i += Character.charCount(cp);
+        }
+    }
+
+    // Interns hashtag spans to dense int ids; a String is created only the first time a hashtag is seen
+    static class HashtagDictionary {
+        private int[] slots = new int[64]; // id + 1, or 0 for an empty slot
+        private int[] hashes = new int[16];
+        private String[] hashtags = new String[16];
+        private int size;
+
+        // Function to return the id of a span, adding it if it is new
+        public int idOf(CharSequence text, int start, int end) {
+            int hash = hash(text, start, end);
+            int slot = probe(hash, text, start, end);
+            if (slots[slot] != 0) {
+                return slots[slot] - 1;
+            }
+
+            int id = size++;
+            if (id == hashtags.length) {
+                hashes = Arrays.copyOf(hashes, id * 2);
+                hashtags = Arrays.copyOf(hashtags, id * 2);
+            }
+            hashes[id] = hash;
+            hashtags[id] = text.subSequence(start, end).toString();
+            slots[slot] = id + 1;
+            if (size * 2 > slots.length) {
+                rehash();
+            }
+            return id;
+        }
+
+        // Function to return the id of a span, or -1 if it has never been added
+        public int find(CharSequence text, int start, int end) {
+            int slot = probe(hash(text, start, end), text, start, end);
+            return slots[slot] - 1;
+        }
+
+        private static int hash(CharSequence text, int start, int end) {
+            int hash = 0;
+            for (int i = start; i < end; i++) {
+                hash = 31 * hash + text.charAt(i); // Same as String.hashCode
+            }
+            return hash;
+        }
+
+        // Slot holding the span, or the empty slot where it would be inserted
+        private int probe(int hash, CharSequence text, int start, int end) {
+            int mask = slots.length - 1;
+            int slot = mix(hash) & mask;
+            while (slots[slot] != 0) {
+                int id = slots[slot] - 1;
+                if (hashes[id] == hash && matches(hashtags[id], text, start, end)) {
+                    return slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        public String hashtag(int id) {
+            return hashtags[id];
+        }
+
+        public int size() {
+            return size;
+        }
+
+        private static int mix(int hash) {
+            return hash ^ (hash >>> 16);
+        }
+
+        private static boolean matches(String hashtag, CharSequence text, int start, int end) {
+            if (hashtag.length() != end - start) {
+                return false;
+            }
+            for (int i = start; i < end; i++) {
+                if (hashtag.charAt(i - start) != text.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void rehash() {
+            slots = new int[slots.length * 2];
+            int mask = slots.length - 1;
+            for (int id = 0; id < size; id++) {
+                int slot = mix(hashes[id]) & mask;
+                while (slots[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                slots[slot] = id + 1;
+            }
+        }
+    }
+
+    // Sink that counts hashtags by interned id into a primitive array
+    static class HashtagCounter implements HashtagSink {
+        final HashtagDictionary dictionary = new HashtagDictionary();
+        private int[] counts = new int[16];
+
+        @Override
+        public void accept(CharSequence text, int start, int end) {
+            int id = dictionary.idOf(text, start, end);
+            if (id == counts.length) {
+                counts = Arrays.copyOf(counts, id * 2);
+            }
+            counts[id]++;
+        }
+
+        public int count(int id) {
+            return counts[id];
+        }
+
+        public int size() {
+            return dictionary.size();
+        }
+    }
+
+    public static void main(String[] args) {
+        String[] tweets = {
+                "Enjoying a great start to the day. #HappyDay #MorningVibes",
+                "Another #HappyDay with good vibes!#FeelGood",
+                "Tabs\tand\nnewlines:\t#Worklife,#ProductiveDay.",
+                "Not tags: C#5 #123 a#b, but #2024Goals and #\u65E5\u672C\u8A9E and #\u0939\u093F\u0928\u094D\u0926\u0940 are",
+        };
+
+        HashtagCounter counter = new HashtagCounter();
+        for (String tweet : tweets) {
+            StringBuilder found = new StringBuilder();
+            scan(tweet, (text, start, end) -> found.append('[').append(text, start, end).append(']'));
+            scan(tweet, counter);
+            System.out.println(found);
+        }
+        // Expected:
+        // [#HappyDay][#MorningVibes]
+        // [#HappyDay][#FeelGood]
+        // [#Worklife][#ProductiveDay]
+        // [#2024Goals][#<Japanese word>][#<Hindi word>]
+
+        System.out.println("Distinct hashtags: " + counter.size()); // Expected: 8
+        System.out.println("#HappyDay count: " + counter.count(counter.dictionary.idOf("#HappyDay", 0, 9))); // Expected: 2
+    }
+}
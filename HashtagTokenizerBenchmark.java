@@ -0,0 +1,98 @@
+//4a - Benchmark: split-based extractHashtags vs. single-pass HashtagTokenizer
+
+import java.lang.management.ManagementFactory;
+import java.util.*;
+
+public class HashtagTokenizerBenchmark {
+
+    // The original split-based extraction, kept here as the baseline
+    private static List<String> splitExtract(String tweet) {
+        List<String> hashtags = new ArrayList<>();
+        String[] words = tweet.split(" ");
+        for (String word : words) {
+            if (word.startsWith("#")) {
+                hashtags.add(word);
+            }
+        }
+        return hashtags;
+    }
+
+    // Function to build a corpus of synthetic tweets with a Zipf-like hashtag mix
+    private static String[] buildCorpus(int size, long seed) {
+        Random random = new Random(seed);
+        String[] words = { "great", "day", "with", "the", "team", "new", "release", "coffee", "again", "why" };
+        String[] tweets = new String[size];
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < size; i++) {
+            sb.setLength(0);
+            int length = 8 + random.nextInt(16);
+            for (int w = 0; w < length; w++) {
+                if (random.nextInt(5) == 0) {
+                    sb.append("#Tag").append((int) (Math.pow(random.nextDouble(), 3) * 1000));
+                } else {
+                    sb.append(words[random.nextInt(words.length)]);
+                }
+                sb.append(' ');
+            }
+            tweets[i] = sb.toString();
+        }
+        return tweets;
+    }
+
+    // Bytes allocated by the current thread so far, or -1 if the JVM cannot tell
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    private static long runSplit(String[] tweets) {
+        Map<String, Integer> counts = new HashMap<>();
+        for (String tweet : tweets) {
+            for (String hashtag : splitExtract(tweet)) {
+                counts.merge(hashtag, 1, Integer::sum);
+            }
+        }
+        return counts.size();
+    }
+
+    private static long runTokenizer(String[] tweets) {
+        HashtagTokenizer.HashtagCounter counter = new HashtagTokenizer.HashtagCounter();
+        for (String tweet : tweets) {
+            HashtagTokenizer.scan(tweet, counter);
+        }
+        return counter.size();
+    }
+
+    private static void report(String name, String[] tweets, boolean tokenizer, int rounds) {
+        long sink = 0;
+        long bestNanos = Long.MAX_VALUE;
+        long bytes = 0;
+        for (int round = 0; round < rounds; round++) {
+            long allocatedBefore = allocatedBytes();
+            long start = System.nanoTime();
+            sink += tokenizer ? runTokenizer(tweets) : runSplit(tweets);
+            long elapsed = System.nanoTime() - start;
+            bytes = allocatedBytes() - allocatedBefore;
+            bestNanos = Math.min(bestNanos, elapsed);
+        }
+        System.out.printf("%-10s %8.1f ns/tweet %10.1f bytes/tweet (checksum %d)%n", name,
+                (double) bestNanos / tweets.length, (double) bytes / tweets.length, sink);
+    }
+
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        String[] tweets = buildCorpus(size, 7);
+
+        // Warm up both paths so the JIT has compiled them before timing
+        report("warmup", Arrays.copyOf(tweets, Math.min(size, 100_000)), false, 3);
+        report("warmup", Arrays.copyOf(tweets, Math.min(size, 100_000)), true, 3);
+
+        System.out.println("Tweets: " + size);
+        report("split", tweets, false, rounds);
+        report("tokenizer", tweets, true, rounds);
+    }
+}
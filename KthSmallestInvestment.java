@@ -1,4 +1,7 @@
 //Question 1b (Algorithm Design Technique-binary search approach)
+import java.util.Arrays;
+import java.util.Random;
+
 public class KthSmallestInvestment {
 
     // Function to count the number of pairs with product <= mid
@@ -43,6 +46,149 @@ public class KthSmallestInvestment {
         return (int) left;
     }
 
+    // Counts pairs with product <= x for two sorted arrays of any signs. Each array is split once
+    // into negative, zero and positive segments and every sign quadrant gets its own two-pointer
+    // sweep in the direction in which its products are monotonic
+    static class ProductCounter {
+        final int[] a, b;
+        final int aNeg, aPos, bNeg, bPos; // [0, neg) negative, [neg, pos) zero, [pos, length) positive
+
+        ProductCounter(int[] a, int[] b) {
+            this.a = a;
+            this.b = b;
+            this.aNeg = firstAtLeast(a, 0);
+            this.aPos = firstAtLeast(a, 1);
+            this.bNeg = firstAtLeast(b, 0);
+            this.bPos = firstAtLeast(b, 1);
+        }
+
+        // Function to find the first index whose value is >= target
+        static int firstAtLeast(int[] values, int target) {
+            int low = 0, high = values.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (values[mid] < target) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        long pairs() {
+            return (long) a.length * b.length;
+        }
+
+        long minProduct() {
+            return Math.min(Math.min((long) a[0] * b[0], (long) a[0] * b[b.length - 1]),
+                    Math.min((long) a[a.length - 1] * b[0], (long) a[a.length - 1] * b[b.length - 1]));
+        }
+
+        long maxProduct() {
+            return Math.max(Math.max((long) a[0] * b[0], (long) a[0] * b[b.length - 1]),
+                    Math.max((long) a[a.length - 1] * b[0], (long) a[a.length - 1] * b[b.length - 1]));
+        }
+
+        // Function to count pairs with product <= x in O(m + n) without allocating
+        long countAtMost(long x) {
+            return countRows(x, 0, a.length);
+        }
+
+        // Function to count pairs with product <= x among the rows a[from, to). Each sweep starts
+        // from a binary-searched pointer, so any slice of rows can be counted on its own
+        long countRows(long x, int from, int to) {
+            int n = b.length;
+            long count = 0;
+
+            // Zeros: zero rows pair with every b, the other rows with the zeros of b
+            if (x >= 0) {
+                long zeroRows = Math.max(0, Math.min(to, aPos) - Math.max(from, aNeg));
+                count += zeroRows * n + (to - from - zeroRows) * (bPos - bNeg);
+            }
+
+            int negEnd = Math.min(to, aNeg);
+            if (from < negEnd) {
+                // negative x negative (positive products): as a rises towards 0 the valid suffix of b grows left
+                int j = flip(a[from], 0, bNeg, x);
+                for (int i = from; i < negEnd; i++) {
+                    while (j > 0 && (long) a[i] * b[j - 1] <= x) {
+                        j--;
+                    }
+                    count += bNeg - j;
+                }
+
+                // negative x positive (negative products): as a rises towards 0 the valid suffix of b shrinks
+                j = flip(a[from], bPos, n, x);
+                for (int i = from; i < negEnd; i++) {
+                    while (j < n && (long) a[i] * b[j] > x) {
+                        j++;
+                    }
+                    count += n - j;
+                }
+            }
+
+            int posStart = Math.max(from, aPos);
+            if (posStart < to) {
+                // positive x positive: as a grows the valid prefix of positive b shrinks
+                int j = flip(a[posStart], bPos, n, x);
+                for (int i = posStart; i < to; i++) {
+                    while (j > bPos && (long) a[i] * b[j - 1] > x) {
+                        j--;
+                    }
+                    count += j - bPos;
+                }
+
+                // positive x negative: as a grows the valid prefix of negative b grows
+                j = flip(a[posStart], 0, bNeg, x);
+                for (int i = posStart; i < to; i++) {
+                    while (j < bNeg && (long) a[i] * b[j] <= x) {
+                        j++;
+                    }
+                    count += j;
+                }
+            }
+            return count;
+        }
+
+        // Function to find the first j in [low, high) where (ai * b[j] <= x) stops holding its value
+        // at low; products rise with j when ai > 0 and fall when ai < 0
+        private int flip(long ai, int low, int high, long x) {
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if ((ai * b[mid] <= x) == (ai > 0)) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        // Function to binary-search the smallest product with at least k pairs <= it, within [low, high]
+        long kth(long k, long low, long high) {
+            while (low < high) {
+                long mid = low + ((high - low) >>> 1); // Unsigned halving: high - low can reach 2^63
+                if (countAtMost(mid) < k) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+
+    // Function to find the kth smallest product with long arithmetic throughout; correct for
+    // negative, zero and positive returns and for up to 2^63 - 1 pairs
+    public static long kthSmallestProductLong(int[] returns1, int[] returns2, long k) {
+        ProductCounter counter = new ProductCounter(returns1, returns2);
+        if (k < 1 || k > counter.pairs()) {
+            throw new IllegalArgumentException("k must be between 1 and the number of pairs");
+        }
+        return counter.kth(k, counter.minProduct(), counter.maxProduct());
+    }
+
     // Main function to test the implementation
     public static void main(String[] args) {
         // Test Case 1
@@ -60,5 +206,53 @@ public class KthSmallestInvestment {
         System.out.println("\nTest Case 2:");
         System.out.println("Input: returns1 = [-4, -2, 0, 3], returns2 = [2, 4], k = " + k);
         System.out.println("Output: " + kthSmallestProduct(returns3, returns4, k)); // Expected: 0
+
+        // Test Case 3: negatives on both sides, where a single sweep direction is wrong
+        int[] returns5 = { -6, -3, 0, 2, 5 };
+        int[] returns6 = { -4, -1, 3 };
+        k = 3;
+        System.out.println("\nTest Case 3:");
+        System.out.println("Input: returns1 = [-6, -3, 0, 2, 5], returns2 = [-4, -1, 3], k = " + k);
+        System.out.println("Output: " + kthSmallestProductLong(returns5, returns6, k)); // Expected: -9
+
+        // Test Case 4: products and counts beyond int range
+        int[] big1 = new int[100_000], big2 = new int[100_000];
+        for (int i = 0; i < big1.length; i++) {
+            big1[i] = -2_000_000_000 + i * 40_000;
+            big2[i] = -1_000_000_000 + i * 20_000;
+        }
+        System.out.println("\nTest Case 4:");
+        System.out.println("Output: " + kthSmallestProductLong(big1, big2, 7_000_000_000L));
+
+        // Test Case 5: random arrays against brute force
+        Random random = new Random(13);
+        int mismatches = 0;
+        for (int trial = 0; trial < 2000; trial++) {
+            int[] r1 = randomSorted(random, 1 + random.nextInt(12));
+            int[] r2 = randomSorted(random, 1 + random.nextInt(12));
+            long[] products = new long[r1.length * r2.length];
+            int p = 0;
+            for (int x : r1) {
+                for (int y : r2) {
+                    products[p++] = (long) x * y;
+                }
+            }
+            Arrays.sort(products);
+            int kth = 1 + random.nextInt(products.length);
+            if (kthSmallestProductLong(r1, r2, kth) != products[kth - 1]) {
+                mismatches++;
+            }
+        }
+        System.out.println("\nTest Case 5:");
+        System.out.println("Random mismatches: " + mismatches); // Expected: 0
+    }
+
+    private static int[] randomSorted(Random random, int length) {
+        int[] values = new int[length];
+        for (int i = 0; i < length; i++) {
+            values[i] = random.nextInt(21) - 10;
+        }
+        Arrays.sort(values);
+        return values;
     }
 }
\ No newline at end of file
@@ -0,0 +1,239 @@
+//Question 1b - Many ranks of the same product distribution at once, plus a lazy ascending stream
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+
+public class KthSmallestInvestmentBatch {
+
+    // Function to find the kth smallest product for every k in ks (ascending); the sign split is
+    // done once and the search intervals of all ranks are narrowed together
+    public static long[] kthSmallestProducts(int[] returns1, int[] returns2, long[] ks) {
+        KthSmallestInvestment.ProductCounter counter = new KthSmallestInvestment.ProductCounter(returns1, returns2);
+        for (int i = 0; i < ks.length; i++) {
+            if (ks[i] < 1 || ks[i] > counter.pairs()) {
+                throw new IllegalArgumentException("k must be between 1 and the number of pairs");
+            }
+            if (i > 0 && ks[i] < ks[i - 1]) {
+                throw new IllegalArgumentException("ks must be sorted in ascending order");
+            }
+        }
+        long[] answers = new long[ks.length];
+        search(counter, ks, 0, ks.length, counter.minProduct(), counter.maxProduct(), answers);
+        return answers;
+    }
+
+    // Every rank in ks[from, to) has its answer in [low, high]; one count at the midpoint splits
+    // them into ranks answered at or below it and ranks answered above it
+    private static void search(KthSmallestInvestment.ProductCounter counter, long[] ks, int from, int to,
+            long low, long high, long[] answers) {
+        if (from >= to) {
+            return;
+        }
+        if (low == high) {
+            Arrays.fill(answers, from, to, low);
+            return;
+        }
+        if (to - from == 1) {
+            answers[from] = counter.kth(ks[from], low, high);
+            return;
+        }
+        long mid = low + ((high - low) >>> 1);
+        long count = counter.countAtMost(mid);
+        int split = from;
+        while (split < to && ks[split] <= count) {
+            split++;
+        }
+        search(counter, ks, from, split, low, mid, answers);
+        search(counter, ks, split, to, mid + 1, high, answers);
+    }
+
+    // Function to find nearest-rank percentiles (0 < p <= 100) of all pairwise products
+    public static long[] percentiles(int[] returns1, int[] returns2, double... ps) {
+        long pairs = (long) returns1.length * returns2.length;
+        long[] ks = new long[ps.length];
+        Integer[] order = new Integer[ps.length];
+        for (int i = 0; i < ps.length; i++) {
+            if (!(ps[i] > 0 && ps[i] <= 100)) {
+                throw new IllegalArgumentException("Percentiles must be in (0, 100]");
+            }
+            order[i] = i;
+        }
+        Arrays.sort(order, (x, y) -> Double.compare(ps[x], ps[y]));
+        for (int i = 0; i < ps.length; i++) {
+            ks[i] = Math.max(1, Math.min(pairs, (long) Math.ceil(ps[order[i]] / 100 * pairs)));
+        }
+        long[] sorted = kthSmallestProducts(returns1, returns2, ks);
+        long[] answers = new long[ps.length];
+        for (int i = 0; i < ps.length; i++) {
+            answers[order[i]] = sorted[i];
+        }
+        return answers;
+    }
+
+    // Streams all products in ascending order. Each row a[i] * b[...] is read from its smallest end
+    // (left when a[i] >= 0, right when a[i] < 0) and the rows are merged with a binary heap of row ids
+    static class AscendingProducts implements PrimitiveIterator.OfLong {
+        private final int[] a, b;
+        private final int[] column; // Next unread column of each row
+        private final int[] heap; // Row ids ordered by their next product
+        private int size;
+
+        AscendingProducts(int[] a, int[] b) {
+            this.a = a;
+            this.b = b;
+            this.column = new int[a.length];
+            this.heap = new int[a.length];
+            if (b.length == 0) {
+                return;
+            }
+            for (int i = 0; i < a.length; i++) {
+                column[i] = a[i] < 0 ? b.length - 1 : 0;
+                heap[size++] = i;
+            }
+            for (int i = size / 2 - 1; i >= 0; i--) {
+                siftDown(i);
+            }
+        }
+
+        private long key(int row) {
+            return (long) a[row] * b[column[row]];
+        }
+
+        private void siftDown(int i) {
+            int row = heap[i];
+            long value = key(row);
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && key(heap[child + 1]) < key(heap[child])) {
+                    child++;
+                }
+                if (key(heap[child]) >= value) {
+                    break;
+                }
+                heap[i] = heap[child];
+                i = child;
+            }
+            heap[i] = row;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return size > 0;
+        }
+
+        @Override
+        public long nextLong() {
+            if (size == 0) {
+                throw new NoSuchElementException();
+            }
+            int row = heap[0];
+            long product = key(row);
+            column[row] += a[row] < 0 ? -1 : 1;
+            if (column[row] < 0 || column[row] >= b.length) {
+                heap[0] = heap[--size];
+            }
+            if (size > 0) {
+                siftDown(0);
+            }
+            return product;
+        }
+    }
+
+    // Function to stream every product in ascending order, computing only as many as are consumed
+    public static PrimitiveIterator.OfLong ascendingProducts(int[] returns1, int[] returns2) {
+        return new AscendingProducts(returns1, returns2);
+    }
+
+    public static void main(String[] args) {
+        // Test Case 1: batch ranks on the mixed-sign example
+        int[] returns1 = { -6, -3, 0, 2, 5 };
+        int[] returns2 = { -4, -1, 3 };
+        System.out.println("Test Case 1:");
+        System.out.println("Output: " + Arrays.toString(kthSmallestProducts(returns1, returns2,
+                new long[] { 1, 3, 8, 15 }))); // Expected: [-20, -9, 0, 24]
+
+        // Test Case 2: the first few products streamed lazily
+        PrimitiveIterator.OfLong products = ascendingProducts(returns1, returns2);
+        StringBuilder first = new StringBuilder();
+        for (int i = 0; i < 6 && products.hasNext(); i++) {
+            first.append(products.nextLong()).append(' ');
+        }
+        System.out.println("\nTest Case 2:");
+        System.out.println("Output: " + first.toString().trim()); // Expected: -20 -18 -9 -8 -5 -2
+
+        // Test Case 3: random arrays against brute force, for both the batch search and the stream
+        Random random = new Random(14);
+        int mismatches = 0;
+        for (int trial = 0; trial < 1000; trial++) {
+            int[] r1 = randomSorted(random, 1 + random.nextInt(12), 21);
+            int[] r2 = randomSorted(random, 1 + random.nextInt(12), 21);
+            long[] expected = new long[r1.length * r2.length];
+            int p = 0;
+            for (int x : r1) {
+                for (int y : r2) {
+                    expected[p++] = (long) x * y;
+                }
+            }
+            Arrays.sort(expected);
+
+            long[] ks = new long[1 + random.nextInt(8)];
+            for (int i = 0; i < ks.length; i++) {
+                ks[i] = 1 + random.nextInt(expected.length);
+            }
+            Arrays.sort(ks);
+            long[] batch = kthSmallestProducts(r1, r2, ks);
+            for (int i = 0; i < ks.length; i++) {
+                if (batch[i] != expected[(int) ks[i] - 1]) {
+                    mismatches++;
+                }
+            }
+
+            PrimitiveIterator.OfLong stream = ascendingProducts(r1, r2);
+            for (long value : expected) {
+                if (!stream.hasNext() || stream.nextLong() != value) {
+                    mismatches++;
+                    break;
+                }
+            }
+            if (stream.hasNext()) {
+                mismatches++;
+            }
+        }
+        System.out.println("\nTest Case 3:");
+        System.out.println("Random mismatches: " + mismatches); // Expected: 0
+
+        // Test Case 4: risk percentiles on large arrays, batched versus one search per rank
+        int n = 200_000;
+        int[] big1 = randomSorted(random, n, 2_000_000), big2 = randomSorted(random, n, 2_000_000);
+        double[] ps = { 1, 5, 50, 95, 99 };
+        percentiles(big1, big2, ps); // Warm-up
+        long start = System.nanoTime();
+        long[] batched = percentiles(big1, big2, ps);
+        long batchedMs = (System.nanoTime() - start) / 1_000_000;
+        start = System.nanoTime();
+        boolean same = true;
+        long pairs = (long) n * n;
+        for (int i = 0; i < ps.length; i++) {
+            long k = (long) Math.ceil(ps[i] / 100 * pairs);
+            same &= KthSmallestInvestment.kthSmallestProductLong(big1, big2, k) == batched[i];
+        }
+        long singleMs = (System.nanoTime() - start) / 1_000_000;
+        System.out.println("\nTest Case 4:");
+        System.out.println("p1/p5/p50/p95/p99: " + Arrays.toString(batched) + (same ? " MATCH" : " MISMATCH"));
+        System.out.println("Batched: " + batchedMs + " ms, one search per rank: " + singleMs + " ms");
+    }
+
+    private static int[] randomSorted(Random random, int length, int range) {
+        int[] values = new int[length];
+        for (int i = 0; i < length; i++) {
+            values[i] = random.nextInt(range) - range / 2;
+        }
+        Arrays.sort(values);
+        return values;
+    }
+}
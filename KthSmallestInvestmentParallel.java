@@ -0,0 +1,118 @@
+//Question 1b - Fork-join pair counting for very large return arrays
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+public class KthSmallestInvestmentParallel {
+
+    // Rows of returns1 counted by one task; each chunk pays four binary searches to find its pointers
+    private static final int CHUNK = 1 << 16;
+
+    // Counts pairs with product <= x among rows [from, to), splitting until a chunk is small enough
+    private static final class CountTask extends RecursiveTask<Long> {
+        private static final long serialVersionUID = 1L;
+
+        final KthSmallestInvestment.ProductCounter counter;
+        final long x;
+        final int from, to;
+
+        CountTask(KthSmallestInvestment.ProductCounter counter, long x, int from, int to) {
+            this.counter = counter;
+            this.x = x;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Long compute() {
+            if (to - from <= CHUNK) {
+                return counter.countRows(x, from, to);
+            }
+            int mid = (from + to) >>> 1;
+            CountTask left = new CountTask(counter, x, from, mid);
+            left.fork();
+            long right = new CountTask(counter, x, mid, to).compute();
+            return right + left.join();
+        }
+    }
+
+    // Function to count pairs with product <= x on the given pool
+    static long countPairs(KthSmallestInvestment.ProductCounter counter, long x, ForkJoinPool pool) {
+        return pool.invoke(new CountTask(counter, x, 0, counter.a.length));
+    }
+
+    // Function to find the kth smallest product with every count of the binary search run in parallel
+    public static long kthSmallestProduct(int[] returns1, int[] returns2, long k, ForkJoinPool pool) {
+        KthSmallestInvestment.ProductCounter counter = new KthSmallestInvestment.ProductCounter(returns1, returns2);
+        if (k < 1 || k > counter.pairs()) {
+            throw new IllegalArgumentException("k must be between 1 and the number of pairs");
+        }
+        long low = counter.minProduct(), high = counter.maxProduct();
+        while (low < high) {
+            long mid = low + ((high - low) >>> 1);
+            if (countPairs(counter, mid, pool) < k) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    public static long kthSmallestProduct(int[] returns1, int[] returns2, long k, int parallelism) {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            return kthSmallestProduct(returns1, returns2, k, pool);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    public static void main(String[] args) {
+        // Test Case 1: chunked counts against the sequential count on small mixed-sign arrays
+        Random random = new Random(15);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        int mismatches = 0;
+        for (int trial = 0; trial < 50; trial++) {
+            int[] r1 = randomSorted(random, 1 + random.nextInt(300_000), 2_000_000);
+            int[] r2 = randomSorted(random, 1 + random.nextInt(1_000), 2_000_000);
+            KthSmallestInvestment.ProductCounter counter = new KthSmallestInvestment.ProductCounter(r1, r2);
+            long x = counter.minProduct() + Math.floorMod(random.nextLong(),
+                    counter.maxProduct() - counter.minProduct() + 1);
+            if (countPairs(counter, x, pool) != counter.countAtMost(x)) {
+                mismatches++;
+            }
+        }
+        pool.shutdown();
+        System.out.println("Test Case 1:");
+        System.out.println("Count mismatches: " + mismatches); // Expected: 0
+
+        // Test Case 2: median product of two 10^6-element arrays at 1, 4 and 16 threads (size from args[0])
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int[] big1 = randomSorted(random, n, Integer.MAX_VALUE);
+        int[] big2 = randomSorted(random, n, Integer.MAX_VALUE);
+        long k = (long) n * n / 2;
+        System.out.println("\nTest Case 2 (n = " + n + ", " + Runtime.getRuntime().availableProcessors()
+                + " cores):");
+        long start = System.nanoTime();
+        long expected = KthSmallestInvestment.kthSmallestProductLong(big1, big2, k);
+        System.out.printf("sequential: %6d ms %d%n", (System.nanoTime() - start) / 1_000_000, expected);
+        for (int threads : new int[] { 1, 4, 16 }) {
+            start = System.nanoTime();
+            long result = kthSmallestProduct(big1, big2, k, threads);
+            System.out.printf("%2d threads: %6d ms %d %s%n", threads, (System.nanoTime() - start) / 1_000_000,
+                    result, result == expected ? "MATCH" : "MISMATCH");
+        }
+    }
+
+    private static int[] randomSorted(Random random, int length, int range) {
+        int[] values = new int[length];
+        for (int i = 0; i < length; i++) {
+            values[i] = random.nextInt(range) - range / 2;
+        }
+        Arrays.sort(values);
+        return values;
+    }
+}
@@ -19,10 +19,12 @@ public class MinimumNetworkCost {
         }
 
         int find(int x) {
-            if (parent[x] != x) {
-                parent[x] = find(parent[x]); // Path compression
+            // Path halving: iterative, so deep trees cannot overflow the stack
+            while (parent[x] != x) {
+                parent[x] = parent[parent[x]];
+                x = parent[x];
             }
-            return parent[x];
+            return x;
         }
 
         boolean union(int x, int y) {
@@ -59,7 +61,7 @@ public class MinimumNetworkCost {
         }
 
         // Sort edges by cost
-        edges.sort((a, b) -> a[2] - b[2]);
+        edges.sort((a, b) -> Integer.compare(a[2], b[2]));
 
         // Initialize Union-Find
         UnionFind uf = new UnionFind(n);
@@ -81,6 +83,224 @@ public class MinimumNetworkCost {
         return totalCost;
     }
 
+    // Edges in parallel primitive arrays; edge i joins from[i] and to[i] at cost[i], and node 0 is
+    // the virtual module node
+    static class Edges {
+        final int[] from, to, cost;
+
+        Edges(int[] from, int[] to, int[] cost) {
+            this.from = from;
+            this.to = to;
+            this.cost = cost;
+        }
+
+        // Function to build the module edges (0, i + 1, modules[i]) followed by the connections
+        static Edges of(int n, int[] modules, int[] connFrom, int[] connTo, int[] connCost) {
+            int m = n + connFrom.length;
+            int[] from = new int[m], to = new int[m], cost = new int[m];
+            for (int i = 0; i < n; i++) {
+                to[i] = i + 1;
+                cost[i] = modules[i];
+            }
+            System.arraycopy(connFrom, 0, from, n, connFrom.length);
+            System.arraycopy(connTo, 0, to, n, connTo.length);
+            System.arraycopy(connCost, 0, cost, n, connCost.length);
+            return new Edges(from, to, cost);
+        }
+
+        static Edges of(int n, int[] modules, int[][] connections) {
+            int m = connections.length;
+            int[] from = new int[m], to = new int[m], cost = new int[m];
+            for (int i = 0; i < m; i++) {
+                from[i] = connections[i][0];
+                to[i] = connections[i][1];
+                cost[i] = connections[i][2];
+            }
+            return of(n, modules, from, to, cost);
+        }
+
+        int size() {
+            return cost.length;
+        }
+    }
+
+    // Function to return edge ids [lo, hi) ordered by cost. Each edge becomes one long with the
+    // cost (sign bit flipped so it sorts unsigned) in the high half and the id in the low half,
+    // then an LSD radix sort runs on the high half a byte at a time
+    static int[] sortedByCost(Edges edges, int[] ids, int lo, int hi) {
+        int m = hi - lo;
+        long[] keys = new long[m], buffer = new long[m];
+        for (int k = 0; k < m; k++) {
+            int id = ids == null ? lo + k : ids[lo + k];
+            keys[k] = (long) (edges.cost[id] ^ 0x80000000) << 32 | id;
+        }
+        int[] counts = new int[257];
+        for (int shift = 32; shift < 64; shift += 8) {
+            Arrays.fill(counts, 0);
+            for (long key : keys) {
+                counts[(int) (key >>> shift & 0xFF) + 1]++;
+            }
+            if (counts[(int) (keys.length == 0 ? 0 : keys[0] >>> shift & 0xFF) + 1] == m) {
+                continue; // Every key has the same byte here
+            }
+            for (int b = 0; b < 256; b++) {
+                counts[b + 1] += counts[b];
+            }
+            for (long key : keys) {
+                buffer[counts[(int) (key >>> shift & 0xFF)]++] = key;
+            }
+            long[] swap = keys;
+            keys = buffer;
+            buffer = swap;
+        }
+        int[] order = new int[m];
+        for (int k = 0; k < m; k++) {
+            order[k] = (int) keys[k];
+        }
+        return order;
+    }
+
+    // Function to run Kruskal on primitive edge arrays and return the total as a long
+    static long kruskal(int n, Edges edges) {
+        int[] order = sortedByCost(edges, null, 0, edges.size());
+        UnionFind uf = new UnionFind(n);
+        long totalCost = 0;
+        int edgesUsed = 0;
+        for (int id : order) {
+            if (uf.union(edges.from[id], edges.to[id])) {
+                totalCost += edges.cost[id];
+                if (++edgesUsed == n) {
+                    break; // All devices are connected
+                }
+            }
+        }
+        return totalCost;
+    }
+
+    // Filter-Kruskal: ranges at or below this size are radix-sorted directly
+    private static final int FILTER_THRESHOLD = 1 << 12;
+
+    // Quicksort-style Kruskal that recurses on the lighter edges first and then drops heavier
+    // edges whose endpoints are already connected before they ever get sorted
+    private static final class FilterKruskal {
+        final Edges edges;
+        final int n;
+        final UnionFind uf;
+        final int[] ids, chosen;
+        final Random random = new Random(0);
+        int used;
+
+        FilterKruskal(int n, Edges edges) {
+            this.n = n;
+            this.edges = edges;
+            this.uf = new UnionFind(n);
+            this.ids = new int[edges.size()];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = i;
+            }
+            this.chosen = new int[n];
+        }
+
+        void take(int id) {
+            if (uf.union(edges.from[id], edges.to[id])) {
+                chosen[used++] = id;
+            }
+        }
+
+        void run(int lo, int hi) {
+            if (used == n || lo >= hi) {
+                return;
+            }
+            if (hi - lo <= FILTER_THRESHOLD) {
+                for (int id : sortedByCost(edges, ids, lo, hi)) {
+                    take(id);
+                    if (used == n) {
+                        return;
+                    }
+                }
+                return;
+            }
+
+            // Three-way partition around a random pivot cost: [lo, lt) < pivot, [lt, gt) == pivot
+            int pivot = edges.cost[ids[lo + random.nextInt(hi - lo)]];
+            int lt = lo, k = lo, gt = hi;
+            while (k < gt) {
+                int cost = edges.cost[ids[k]];
+                if (cost < pivot) {
+                    swap(lt++, k++);
+                } else if (cost > pivot) {
+                    swap(k, --gt);
+                } else {
+                    k++;
+                }
+            }
+            run(lo, lt);
+            for (k = lt; k < gt && used < n; k++) {
+                take(ids[k]);
+            }
+            if (used == n) {
+                return;
+            }
+
+            // Filter the heavier edges against the components built so far
+            int kept = gt;
+            for (k = gt; k < hi; k++) {
+                int id = ids[k];
+                if (uf.find(edges.from[id]) != uf.find(edges.to[id])) {
+                    ids[kept++] = id;
+                }
+            }
+            run(gt, kept);
+        }
+
+        void swap(int a, int b) {
+            int t = ids[a];
+            ids[a] = ids[b];
+            ids[b] = t;
+        }
+    }
+
+    // Function to return the ids of the edges Filter-Kruskal picks
+    static int[] filterKruskal(int n, Edges edges) {
+        FilterKruskal search = new FilterKruskal(n, edges);
+        search.run(0, edges.size());
+        return Arrays.copyOf(search.chosen, search.used);
+    }
+
+    static long totalCost(Edges edges, int[] ids) {
+        long total = 0;
+        for (int id : ids) {
+            total += edges.cost[id];
+        }
+        return total;
+    }
+
+    // Function to list chosen edges as { from, to, cost }; from == 0 means installing a module
+    static int[][] toConnections(Edges edges, int[] ids) {
+        int[][] result = new int[ids.length][];
+        for (int k = 0; k < ids.length; k++) {
+            result[k] = new int[] { edges.from[ids[k]], edges.to[ids[k]], edges.cost[ids[k]] };
+        }
+        return result;
+    }
+
+    // Function to return the chosen module installations and connections using Filter-Kruskal
+    public static int[][] chooseConnectionsFilterKruskal(int n, int[] modules, int[][] connections) {
+        Edges edges = Edges.of(n, modules, connections);
+        return toConnections(edges, filterKruskal(n, edges));
+    }
+
+    // Function to find the minimum cost without per-edge objects; connection i is
+    // (connFrom[i], connTo[i], connCost[i])
+    public static long minCostToConnectDevicesFast(int n, int[] modules, int[] connFrom, int[] connTo,
+            int[] connCost) {
+        return kruskal(n, Edges.of(n, modules, connFrom, connTo, connCost));
+    }
+
+    public static long minCostToConnectDevicesFast(int n, int[] modules, int[][] connections) {
+        return kruskal(n, Edges.of(n, modules, connections));
+    }
+
     public static void main(String[] args) {
         // Test Case 1
         int n1 = 3;
@@ -107,5 +327,61 @@ public class MinimumNetworkCost {
         System.out.println(
                 "Input: n = 5, modules = [1, 1, 1, 1, 1], connections = [[1, 2, 1], [2, 3, 1], [3, 4, 1], [4, 5, 1]]");
         System.out.println("Output: " + minCostToConnectDevices(n3, modules3, connections3)); // Expected: 5
+
+        // Test Case 4: the primitive engine and Filter-Kruskal on the cases above and on random graphs
+        Random random = new Random(19);
+        int mismatches = 0;
+        for (int trial = 0; trial < 500; trial++) {
+            int n = 1 + random.nextInt(30);
+            int[] modules = new int[n];
+            for (int i = 0; i < n; i++) {
+                modules[i] = random.nextInt(100);
+            }
+            int[][] connections = new int[random.nextInt(60)][];
+            for (int i = 0; i < connections.length; i++) {
+                connections[i] = new int[] { 1 + random.nextInt(n), 1 + random.nextInt(n), random.nextInt(100) };
+            }
+            int expected = minCostToConnectDevices(n, modules, connections);
+            if (minCostToConnectDevicesFast(n, modules, connections) != expected) {
+                mismatches++;
+            }
+            long filtered = 0;
+            for (int[] edge : chooseConnectionsFilterKruskal(n, modules, connections)) {
+                filtered += edge[2];
+            }
+            if (filtered != expected) {
+                mismatches++;
+            }
+        }
+        System.out.println("\nTest Case 4:");
+        System.out.println("Fast: " + minCostToConnectDevicesFast(n1, modules1, connections1) + ", "
+                + minCostToConnectDevicesFast(n2, modules2, connections2) + ", "
+                + minCostToConnectDevicesFast(n3, modules3, connections3)); // Expected: 3, 8, 5
+        System.out.println("Random mismatches: " + mismatches); // Expected: 0
+
+        // Test Case 5: a long path (deep union-find trees) and costs whose sum overflows an int;
+        // 8 * 10^5 connections by default (args[0] = 8000000 for the 2 * 10^6-device run)
+        int m = args.length > 0 ? Integer.parseInt(args[0]) : 800_000, n = Math.max(2, m / 4);
+        int[] modules = new int[n];
+        Arrays.fill(modules, 2_000_000_000);
+        int[] from = new int[m], to = new int[m], cost = new int[m];
+        for (int i = 0; i < m; i++) {
+            from[i] = i < n - 1 ? i + 1 : 1 + random.nextInt(n);
+            to[i] = i < n - 1 ? i + 2 : 1 + random.nextInt(n);
+            cost[i] = random.nextInt(Integer.MAX_VALUE);
+        }
+        int[][] connections = new int[m][];
+        for (int i = 0; i < m; i++) {
+            connections[i] = new int[] { from[i], to[i], cost[i] };
+        }
+        long start = System.nanoTime();
+        int boxed = minCostToConnectDevices(n, modules, connections);
+        long boxedMs = (System.nanoTime() - start) / 1_000_000;
+        start = System.nanoTime();
+        long fast = minCostToConnectDevicesFast(n, modules, from, to, cost);
+        long fastMs = (System.nanoTime() - start) / 1_000_000;
+        System.out.println("\nTest Case 5:");
+        System.out.println("List<int[]>: " + boxed + " in " + boxedMs + " ms (int total wraps)");
+        System.out.println("Primitive:   " + fast + " in " + fastMs + " ms");
     }
 }
\ No newline at end of file
@@ -0,0 +1,331 @@
+//3a - Out-of-core minimum network cost for edge lists larger than the heap
+
+import java.io.*;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Edge files (the input and every sorted run) hold 12-byte big-endian records: int from | int to | int cost.
+// Edges are cut into runs of at most runEdges, each run is radix-sorted in memory and written out,
+// runs are merged fanIn at a time until one merge is left, and that last merge feeds Kruskal's
+// union-find directly. Heap use is O(n + runEdges + fanIn); files are read through mapped windows
+public class MinimumNetworkCostExternal {
+
+    static final int RECORD_BYTES = 12;
+    private static final long WINDOW_BYTES = RECORD_BYTES << 16; // Mapped window size per reader
+    static final int DEFAULT_RUN_EDGES = 1 << 22;
+    static final int DEFAULT_FAN_IN = 64;
+
+    // Reads edge records through a window that is remapped as the reader moves along the file
+    static final class EdgeReader implements Closeable {
+        private final FileChannel channel;
+        private final long end;
+        private long position;
+        private MappedByteBuffer window;
+        int from, to, cost;
+
+        EdgeReader(Path path) throws IOException {
+            this.channel = FileChannel.open(path, StandardOpenOption.READ);
+            this.end = channel.size();
+            if (end % RECORD_BYTES != 0) {
+                channel.close();
+                throw new IOException("Truncated edge file " + path + ": " + end + " bytes is not a multiple of "
+                        + RECORD_BYTES);
+            }
+        }
+
+        // Function to load the next record into from / to / cost; false at end of file
+        boolean next() throws IOException {
+            if (window == null || !window.hasRemaining()) {
+                if (position >= end) {
+                    return false;
+                }
+                long length = Math.min(WINDOW_BYTES, end - position);
+                window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                position += length;
+            }
+            from = window.getInt();
+            to = window.getInt();
+            cost = window.getInt();
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    // Receives merged edges in cost order; returning false stops the merge early
+    private interface EdgeSink {
+        boolean accept(int from, int to, int cost) throws IOException;
+    }
+
+    // Function to write connections to an edge file
+    public static void writeEdges(Path path, int[] from, int[] to, int[] cost) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(path), 1 << 16))) {
+            for (int i = 0; i < from.length; i++) {
+                out.writeInt(from[i]);
+                out.writeInt(to[i]);
+                out.writeInt(cost[i]);
+            }
+        }
+    }
+
+    // Buffers up to runEdges edges and writes each full buffer as one sorted run
+    private static final class RunWriter {
+        final Path directory;
+        final int[] from, to, cost;
+        final List<Path> runs = new ArrayList<>();
+        int size;
+
+        RunWriter(Path directory, int runEdges) {
+            this.directory = directory;
+            this.from = new int[runEdges];
+            this.to = new int[runEdges];
+            this.cost = new int[runEdges];
+        }
+
+        void add(int u, int v, int c) throws IOException {
+            from[size] = u;
+            to[size] = v;
+            cost[size] = c;
+            if (++size == from.length) {
+                flush();
+            }
+        }
+
+        void flush() throws IOException {
+            if (size == 0) {
+                return;
+            }
+            MinimumNetworkCost.Edges edges = new MinimumNetworkCost.Edges(from, to, cost);
+            int[] order = MinimumNetworkCost.sortedByCost(edges, null, 0, size);
+            Path run = Files.createTempFile(directory, "run", ".edges");
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(run), 1 << 16))) {
+                for (int id : order) {
+                    out.writeInt(from[id]);
+                    out.writeInt(to[id]);
+                    out.writeInt(cost[id]);
+                }
+            }
+            runs.add(run);
+            size = 0;
+        }
+    }
+
+    // Function to merge sorted runs into the sink with a binary heap of readers keyed by cost
+    private static void merge(List<Path> runs, EdgeSink sink) throws IOException {
+        EdgeReader[] readers = new EdgeReader[runs.size()];
+        int[] heap = new int[runs.size()];
+        int size = 0;
+        try {
+            for (int r = 0; r < readers.length; r++) {
+                readers[r] = new EdgeReader(runs.get(r));
+                if (readers[r].next()) {
+                    heap[size++] = r;
+                }
+            }
+            for (int i = size / 2 - 1; i >= 0; i--) {
+                siftDown(heap, size, i, readers);
+            }
+            while (size > 0) {
+                EdgeReader top = readers[heap[0]];
+                if (!sink.accept(top.from, top.to, top.cost)) {
+                    return;
+                }
+                if (!top.next()) {
+                    heap[0] = heap[--size];
+                }
+                siftDown(heap, size, 0, readers);
+            }
+        } finally {
+            for (EdgeReader reader : readers) {
+                if (reader != null) {
+                    reader.close();
+                }
+            }
+        }
+    }
+
+    private static void siftDown(int[] heap, int size, int i, EdgeReader[] readers) {
+        if (size == 0) {
+            return;
+        }
+        int r = heap[i];
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && readers[heap[child + 1]].cost < readers[heap[child]].cost) {
+                child++;
+            }
+            if (readers[heap[child]].cost >= readers[r].cost) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = r;
+    }
+
+    // Function to find the minimum cost for connections stored in an edge file
+    public static long minCostToConnectDevices(int n, int[] modules, Path edgeFile, int runEdges, int fanIn)
+            throws IOException {
+        if (runEdges < 1 || fanIn < 2) {
+            throw new IllegalArgumentException("runEdges must be positive and fanIn at least 2");
+        }
+        Path directory = Files.createTempDirectory("mst-runs");
+        try {
+            // Pass 1: sorted runs of module edges followed by the file's connections
+            RunWriter writer = new RunWriter(directory, runEdges);
+            for (int i = 0; i < n; i++) {
+                writer.add(0, i + 1, modules[i]);
+            }
+            try (EdgeReader reader = new EdgeReader(edgeFile)) {
+                while (reader.next()) {
+                    writer.add(reader.from, reader.to, reader.cost);
+                }
+            }
+            writer.flush();
+            List<Path> runs = writer.runs;
+
+            // Intermediate passes: merge groups of fanIn runs until a single merge suffices
+            while (runs.size() > fanIn) {
+                List<Path> merged = new ArrayList<>();
+                for (int g = 0; g < runs.size(); g += fanIn) {
+                    List<Path> group = runs.subList(g, Math.min(runs.size(), g + fanIn));
+                    Path output = Files.createTempFile(directory, "merge", ".edges");
+                    try (DataOutputStream out = new DataOutputStream(
+                            new BufferedOutputStream(Files.newOutputStream(output), 1 << 16))) {
+                        merge(group, (u, v, c) -> {
+                            out.writeInt(u);
+                            out.writeInt(v);
+                            out.writeInt(c);
+                            return true;
+                        });
+                    }
+                    for (Path run : group) {
+                        Files.delete(run);
+                    }
+                    merged.add(output);
+                }
+                runs = merged;
+            }
+
+            // Final pass: Kruskal straight off the merge, stopping once every device is connected
+            MinimumNetworkCost.UnionFind uf = new MinimumNetworkCost.UnionFind(n);
+            long[] total = new long[1];
+            int[] edgesUsed = new int[1];
+            merge(runs, (u, v, c) -> {
+                if (uf.union(u, v)) {
+                    total[0] += c;
+                    edgesUsed[0]++;
+                }
+                return edgesUsed[0] < n;
+            });
+            return total[0];
+        } finally {
+            try (DirectoryStream<Path> leftovers = Files.newDirectoryStream(directory)) {
+                for (Path path : leftovers) {
+                    Files.delete(path);
+                }
+            }
+            Files.delete(directory);
+        }
+    }
+
+    public static long minCostToConnectDevices(int n, int[] modules, Path edgeFile) throws IOException {
+        return minCostToConnectDevices(n, modules, edgeFile, DEFAULT_RUN_EDGES, DEFAULT_FAN_IN);
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path file = Files.createTempFile("connections", ".edges");
+        try {
+            // Test Case 1: the example from the question
+            writeEdges(file, new int[] { 1, 2 }, new int[] { 2, 3 }, new int[] { 1, 1 });
+            System.out.println("Test Case 1:");
+            System.out.println("Output: " + minCostToConnectDevices(3, new int[] { 1, 2, 2 }, file)); // Expected: 3
+
+            // Test Case 2: tiny runs and fan-in so that several merge passes run
+            Random random = new Random(22);
+            int mismatches = 0;
+            for (int trial = 0; trial < 200; trial++) {
+                int n = 1 + random.nextInt(30);
+                int[] modules = new int[n];
+                for (int i = 0; i < n; i++) {
+                    modules[i] = random.nextInt(100);
+                }
+                int m = random.nextInt(120);
+                int[] from = new int[m], to = new int[m], cost = new int[m];
+                for (int i = 0; i < m; i++) {
+                    from[i] = 1 + random.nextInt(n);
+                    to[i] = 1 + random.nextInt(n);
+                    cost[i] = random.nextInt(100) - 20;
+                }
+                writeEdges(file, from, to, cost);
+                long external = minCostToConnectDevices(n, modules, file, 1 + random.nextInt(10),
+                        2 + random.nextInt(3));
+                if (external != MinimumNetworkCost.minCostToConnectDevicesFast(n, modules, from, to, cost)) {
+                    mismatches++;
+                }
+            }
+            System.out.println("\nTest Case 2:");
+            System.out.println("Random mismatches: " + mismatches); // Expected: 0
+
+            // Test Case 3: 10^6 connections streamed to disk, sorted in m / 8-edge runs with fan-in 4
+            // (args[0] = 10000000 for the 10^7 run)
+            int m = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000, n = Math.max(1, m / 10);
+            int[] modules = new int[n];
+            for (int i = 0; i < n; i++) {
+                modules[i] = 1 + random.nextInt(1_000_000_000);
+            }
+            long seed = random.nextLong();
+            Random edges = new Random(seed);
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(file), 1 << 16))) {
+                for (int i = 0; i < m; i++) {
+                    out.writeInt(1 + edges.nextInt(n));
+                    out.writeInt(1 + edges.nextInt(n));
+                    out.writeInt(edges.nextInt(1_000_000_000));
+                }
+            }
+            long start = System.nanoTime();
+            long external = minCostToConnectDevices(n, modules, file, Math.max(1, m / 8), 4);
+            long externalMs = (System.nanoTime() - start) / 1_000_000;
+
+            edges = new Random(seed);
+            int[] from = new int[m], to = new int[m], cost = new int[m];
+            for (int i = 0; i < m; i++) {
+                from[i] = 1 + edges.nextInt(n);
+                to[i] = 1 + edges.nextInt(n);
+                cost[i] = edges.nextInt(1_000_000_000);
+            }
+            long inMemory = MinimumNetworkCost.minCostToConnectDevicesFast(n, modules, from, to, cost);
+            System.out.println("\nTest Case 3:");
+            System.out.println("External: " + external + " in " + externalMs + " ms, in memory: " + inMemory + " "
+                    + (external == inMemory ? "MATCH" : "MISMATCH"));
+
+            // Test Case 4: a file whose last record was cut short is rejected instead of silently dropped
+            writeEdges(file, new int[] { 1, 2 }, new int[] { 2, 3 }, new int[] { 1, 1 });
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                channel.truncate(2 * RECORD_BYTES - 4);
+            }
+            System.out.println("\nTest Case 4:");
+            try {
+                minCostToConnectDevices(3, new int[] { 1, 2, 2 }, file);
+                System.out.println("Output: accepted");
+            } catch (IOException e) {
+                System.out.println("Output: " + e.getMessage().replace(file.toString(), "<file>"));
+            } // Expected: Truncated edge file <file>: 20 bytes is not a multiple of 12
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,254 @@
+//3a - Parallel Boruvka minimum network cost with a lock-free union-find
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+public class MinimumNetworkCostParallel {
+
+    // Edges (or nodes) handled by one leaf task
+    private static final int CHUNK = 1 << 14;
+
+    // Union-find whose roots are linked with compareAndSet, so any number of threads may find
+    // and union at once. The larger root always points to the smaller one, which rules out cycles
+    static final class ConcurrentUnionFind {
+        final AtomicIntegerArray parent;
+
+        ConcurrentUnionFind(int size) {
+            parent = new AtomicIntegerArray(size);
+            for (int i = 0; i < size; i++) {
+                parent.set(i, i);
+            }
+        }
+
+        int find(int x) {
+            while (true) {
+                int p = parent.get(x);
+                if (p == x) {
+                    return x;
+                }
+                int gp = parent.get(p);
+                if (gp != p) {
+                    parent.compareAndSet(x, p, gp); // Path halving; losing the race is harmless
+                }
+                x = gp;
+            }
+        }
+
+        boolean union(int x, int y) {
+            while (true) {
+                int rootX = find(x), rootY = find(y);
+                if (rootX == rootY) {
+                    return false;
+                }
+                if (rootX < rootY) {
+                    int t = rootX;
+                    rootX = rootY;
+                    rootY = t;
+                }
+                if (parent.compareAndSet(rootX, rootX, rootY)) {
+                    return true;
+                }
+            }
+        }
+    }
+
+    // Runs body.apply(chunk) for chunks [from, to) in parallel
+    private interface ChunkBody {
+        void apply(int chunk);
+    }
+
+    private static final class ChunkTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        final ChunkBody body;
+        final int from, to;
+
+        ChunkTask(ChunkBody body, int from, int to) {
+            this.body = body;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                body.apply(from);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new ChunkTask(body, from, mid), new ChunkTask(body, mid, to));
+        }
+    }
+
+    private static void forChunks(ForkJoinPool pool, int chunks, ChunkBody body) {
+        if (chunks > 0) {
+            pool.invoke(new ChunkTask(body, 0, chunks));
+        }
+    }
+
+    // Function to return the ids of the edges Boruvka picks. Each round every component finds its
+    // cheapest outgoing edge, ordered by the key (cost << 32 | id) so that ties are broken the
+    // same way everywhere, and all of those edges are added at once
+    static int[] boruvka(int n, MinimumNetworkCost.Edges edges, ForkJoinPool pool) {
+        int m = edges.size();
+        int nodes = n + 1;
+        ConcurrentUnionFind uf = new ConcurrentUnionFind(nodes);
+        AtomicLongArray best = new AtomicLongArray(nodes);
+        int[] chosen = new int[n];
+        AtomicInteger used = new AtomicInteger();
+
+        // Live edges are kept at the front of their chunk; edges inside one component are dropped
+        int[] ids = new int[m];
+        for (int i = 0; i < m; i++) {
+            ids[i] = i;
+        }
+        int edgeChunks = (m + CHUNK - 1) / CHUNK;
+        int nodeChunks = (nodes + CHUNK - 1) / CHUNK;
+        int[] live = new int[edgeChunks];
+        for (int c = 0; c < edgeChunks; c++) {
+            live[c] = Math.min(CHUNK, m - c * CHUNK);
+        }
+
+        while (used.get() < n) {
+            forChunks(pool, nodeChunks, c -> {
+                for (int v = c * CHUNK, end = Math.min(nodes, v + CHUNK); v < end; v++) {
+                    best.set(v, Long.MAX_VALUE);
+                }
+            });
+
+            forChunks(pool, edgeChunks, c -> {
+                int base = c * CHUNK, kept = base;
+                for (int k = base, end = base + live[c]; k < end; k++) {
+                    int id = ids[k];
+                    int ru = uf.find(edges.from[id]), rv = uf.find(edges.to[id]);
+                    if (ru == rv) {
+                        continue;
+                    }
+                    ids[kept++] = id;
+                    long key = (long) edges.cost[id] << 32 | id;
+                    offerMin(best, ru, key);
+                    offerMin(best, rv, key);
+                }
+                live[c] = kept - base;
+            });
+
+            int before = used.get();
+            forChunks(pool, nodeChunks, c -> {
+                for (int v = c * CHUNK, end = Math.min(nodes, v + CHUNK); v < end; v++) {
+                    long key = best.get(v);
+                    if (key != Long.MAX_VALUE) {
+                        int id = (int) key;
+                        if (uf.union(edges.from[id], edges.to[id])) {
+                            chosen[used.getAndIncrement()] = id;
+                        }
+                    }
+                }
+            });
+            if (used.get() == before) {
+                break; // No component has an outgoing edge left
+            }
+        }
+        return Arrays.copyOf(chosen, used.get());
+    }
+
+    private static void offerMin(AtomicLongArray best, int v, long key) {
+        long current;
+        while (key < (current = best.get(v))) {
+            if (best.compareAndSet(v, current, key)) {
+                return;
+            }
+        }
+    }
+
+    // Function to return the chosen module installations and connections using parallel Boruvka
+    public static int[][] chooseConnections(int n, int[] modules, int[][] connections, int parallelism) {
+        MinimumNetworkCost.Edges edges = MinimumNetworkCost.Edges.of(n, modules, connections);
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            return MinimumNetworkCost.toConnections(edges, boruvka(n, edges, pool));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    public static void main(String[] args) {
+        // Test Case 1: the example from the question
+        int[][] chosen = chooseConnections(3, new int[] { 1, 2, 2 }, new int[][] { { 1, 2, 1 }, { 2, 3, 1 } }, 2);
+        long total = 0;
+        for (int[] edge : chosen) {
+            total += edge[2];
+        }
+        System.out.println("Test Case 1:");
+        System.out.println("Output: " + total + " using " + Arrays.deepToString(chosen)); // Expected: 3
+
+        // Test Case 2: small random graphs against the original Kruskal
+        Random random = new Random(20);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        int mismatches = 0;
+        for (int trial = 0; trial < 500; trial++) {
+            int n = 1 + random.nextInt(30);
+            int[] modules = new int[n];
+            for (int i = 0; i < n; i++) {
+                modules[i] = random.nextInt(100);
+            }
+            int[][] connections = new int[random.nextInt(60)][];
+            for (int i = 0; i < connections.length; i++) {
+                connections[i] = new int[] { 1 + random.nextInt(n), 1 + random.nextInt(n), random.nextInt(100) };
+            }
+            MinimumNetworkCost.Edges edges = MinimumNetworkCost.Edges.of(n, modules, connections);
+            if (MinimumNetworkCost.totalCost(edges, boruvka(n, edges, pool))
+                    != MinimumNetworkCost.minCostToConnectDevices(n, modules, connections)) {
+                mismatches++;
+            }
+        }
+        pool.shutdown();
+        System.out.println("\nTest Case 2:");
+        System.out.println("Random mismatches: " + mismatches); // Expected: 0
+
+        // Test Case 3: random graphs up to 10^6 edges (n = m / 10), wide and narrow cost ranges; pass a
+        // larger limit in args[0] for the 10^7 run
+        int maxEdges = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        System.out.println("\nTest Case 3 (" + Runtime.getRuntime().availableProcessors() + " cores):");
+        for (int m = 100_000; m <= maxEdges; m *= 10) {
+            for (int costRange : new int[] { 1_000_000_000, 100 }) {
+                int n = m / 10;
+                int[] modules = new int[n];
+                for (int i = 0; i < n; i++) {
+                    modules[i] = 1 + random.nextInt(costRange);
+                }
+                int[] from = new int[m], to = new int[m], cost = new int[m];
+                for (int i = 0; i < m; i++) {
+                    from[i] = 1 + random.nextInt(n);
+                    to[i] = 1 + random.nextInt(n);
+                    cost[i] = random.nextInt(costRange);
+                }
+                MinimumNetworkCost.Edges edges = MinimumNetworkCost.Edges.of(n, modules, from, to, cost);
+                System.out.printf("m = %,d, costs < %,d%n", m, costRange);
+
+                long start = System.nanoTime();
+                long expected = MinimumNetworkCost.kruskal(n, edges);
+                System.out.printf("  radix Kruskal:   %6d ms %d%n", (System.nanoTime() - start) / 1_000_000, expected);
+
+                start = System.nanoTime();
+                long filtered = MinimumNetworkCost.totalCost(edges, MinimumNetworkCost.filterKruskal(n, edges));
+                System.out.printf("  Filter-Kruskal:  %6d ms %d %s%n", (System.nanoTime() - start) / 1_000_000,
+                        filtered, filtered == expected ? "MATCH" : "MISMATCH");
+
+                for (int threads = 1; threads <= 8; threads *= 2) {
+                    pool = new ForkJoinPool(threads);
+                    start = System.nanoTime();
+                    long parallel = MinimumNetworkCost.totalCost(edges, boruvka(n, edges, pool));
+                    System.out.printf("  Boruvka %d thr:   %6d ms %d %s%n", threads,
+                            (System.nanoTime() - start) / 1_000_000, parallel,
+                            parallel == expected ? "MATCH" : "MISMATCH");
+                    pool.shutdown();
+                }
+            }
+        }
+    }
+}
@@ -1,4 +1,9 @@
 //Question 2a (greedy approach)
+import java.io.*;
+import java.nio.IntBuffer;
+import java.util.Random;
+import java.util.stream.IntStream;
+
 public class MinimumRewards {
 
     public static int minRewards(int[] ratings) {
@@ -35,7 +40,76 @@ public class MinimumRewards {
         return minRewards;
     }
 
-    public static void main(String[] args) {
+    // Single-pass minimum rewards in O(1) memory. Only the lengths of the current ascending run (up),
+    // the current descending run (down) and the height of the peak before it are tracked
+    static class RewardAccumulator {
+        private long total;
+        private long up, down, peak;
+        private int previous;
+        private boolean started;
+
+        public void accept(int rating) {
+            if (!started) {
+                started = true;
+                total = 1;
+            } else if (rating > previous) {
+                // Each step up pays one more than the last
+                up++;
+                peak = up;
+                down = 0;
+                total += 1 + up;
+            } else if (rating == previous) {
+                // Equal neighbours are independent: start over at 1
+                up = 0;
+                down = 0;
+                peak = 0;
+                total += 1;
+            } else {
+                // Each step down lifts the whole descent by one; the peak is lifted too once
+                // the descent becomes longer than the ascent before it
+                up = 0;
+                down++;
+                total += down + 1 - (peak >= down ? 1 : 0);
+            }
+            previous = rating;
+        }
+
+        public long total() {
+            return total;
+        }
+    }
+
+    // Function to find the minimum rewards for a stream of ratings in one pass
+    public static long minRewards(IntStream ratings) {
+        RewardAccumulator accumulator = new RewardAccumulator();
+        ratings.sequential().forEachOrdered(accumulator::accept);
+        return accumulator.total();
+    }
+
+    // Function to find the minimum rewards for the remaining ratings of a buffer
+    public static long minRewards(IntBuffer ratings) {
+        RewardAccumulator accumulator = new RewardAccumulator();
+        while (ratings.hasRemaining()) {
+            accumulator.accept(ratings.get());
+        }
+        return accumulator.total();
+    }
+
+    // Function to find the minimum rewards for big-endian 32-bit ratings read until end of stream
+    public static long minRewards(InputStream ratings) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(ratings, 1 << 16));
+        RewardAccumulator accumulator = new RewardAccumulator();
+        int first;
+        while ((first = in.read()) >= 0) {
+            // A stream ending inside a rating is an error rather than a silently dropped value
+            int rating = first << 24 | in.readUnsignedByte() << 16 | in.readUnsignedByte() << 8
+                    | in.readUnsignedByte();
+            accumulator.accept(rating);
+        }
+        return accumulator.total();
+    }
+
+    public static void main(String[] args) throws IOException {
         // Test Case 1
         int[] ratings1 = { 1, 0, 2 };
         System.out.println("Test Case 1:");
@@ -53,5 +127,31 @@ public class MinimumRewards {
         System.out.println("\nTest Case 3:");
         System.out.println("Input: ratings = [4, 3, 2, 1, 2, 3, 4]");
         System.out.println("Output: " + minRewards(ratings3)); // Expected: 19
+
+        // Test Case 4: the streaming sources against the two-pass version on random ratings
+        Random random = new Random(16);
+        int mismatches = 0;
+        for (int trial = 0; trial < 2000; trial++) {
+            int[] ratings = new int[random.nextInt(30)];
+            for (int i = 0; i < ratings.length; i++) {
+                ratings[i] = random.nextInt(1 + trial % 6);
+            }
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            for (int rating : ratings) {
+                out.writeInt(rating);
+            }
+            long expected = minRewards(ratings);
+            if (minRewards(IntStream.of(ratings)) != expected || minRewards(IntBuffer.wrap(ratings)) != expected
+                    || minRewards(new ByteArrayInputStream(bytes.toByteArray())) != expected) {
+                mismatches++;
+            }
+        }
+        System.out.println("\nTest Case 4:");
+        System.out.println("Random mismatches: " + mismatches); // Expected: 0
+
+        // Test Case 5: a 200 000-long climb, whose total no longer fits in an int
+        System.out.println("\nTest Case 5:");
+        System.out.println("Output: " + minRewards(IntStream.range(0, 200_000))); // Expected: 20000100000
     }
 }
\ No newline at end of file
@@ -0,0 +1,119 @@
+//Question 2a - Minimum rewards kept up to date while single ratings change
+
+import java.util.Arrays;
+import java.util.Random;
+
+public class MinimumRewardsIncremental {
+
+    private final int[] ratings;
+    private final int[] up; // Length of the ascending run ending at i (the left-to-right pass)
+    private final int[] down; // Length of the descending run starting at i (the right-to-left pass)
+    private final int[] rewards; // max(up[i], down[i])
+    private long total;
+
+    public MinimumRewardsIncremental(int[] ratings) {
+        int n = ratings.length;
+        this.ratings = Arrays.copyOf(ratings, n);
+        this.up = new int[n];
+        this.down = new int[n];
+        this.rewards = new int[n];
+        for (int i = 0; i < n; i++) {
+            up[i] = i > 0 && ratings[i] > ratings[i - 1] ? up[i - 1] + 1 : 1;
+        }
+        for (int i = n - 1; i >= 0; i--) {
+            down[i] = i < n - 1 && ratings[i] > ratings[i + 1] ? down[i + 1] + 1 : 1;
+        }
+        for (int i = 0; i < n; i++) {
+            rewards[i] = Math.max(up[i], down[i]);
+            total += rewards[i];
+        }
+    }
+
+    // Function to change one rating and return the new total. Only the run lengths that actually
+    // change are recomputed: up[] forwards from i and down[] backwards from i, each stopping at
+    // the first index past i whose value is unchanged, since nothing beyond it depends on i
+    public long updateRating(int i, int newValue) {
+        ratings[i] = newValue;
+        int n = ratings.length;
+
+        for (int j = i; j < n; j++) {
+            int value = j > 0 && ratings[j] > ratings[j - 1] ? up[j - 1] + 1 : 1;
+            if (value == up[j] && j > i) {
+                break;
+            }
+            up[j] = value;
+            refresh(j);
+        }
+        for (int j = i; j >= 0; j--) {
+            int value = j < n - 1 && ratings[j] > ratings[j + 1] ? down[j + 1] + 1 : 1;
+            if (value == down[j] && j < i) {
+                break;
+            }
+            down[j] = value;
+            refresh(j);
+        }
+        return total;
+    }
+
+    private void refresh(int j) {
+        int reward = Math.max(up[j], down[j]);
+        total += reward - rewards[j];
+        rewards[j] = reward;
+    }
+
+    public long total() {
+        return total;
+    }
+
+    public int reward(int i) {
+        return rewards[i];
+    }
+
+    public static void main(String[] args) {
+        // Test Case 1: the example from the question, then one change
+        MinimumRewardsIncremental tracker = new MinimumRewardsIncremental(new int[] { 1, 0, 2 });
+        System.out.println("Test Case 1:");
+        System.out.println("Output: " + tracker.total()); // Expected: 5
+        System.out.println("After ratings[2] = 0: " + tracker.updateRating(2, 0)); // Expected: 4
+
+        // Test Case 2: random updates against a full recomputation
+        Random random = new Random(18);
+        int mismatches = 0;
+        for (int trial = 0; trial < 500; trial++) {
+            int[] ratings = new int[1 + random.nextInt(40)];
+            for (int i = 0; i < ratings.length; i++) {
+                ratings[i] = random.nextInt(1 + trial % 9);
+            }
+            tracker = new MinimumRewardsIncremental(ratings);
+            for (int step = 0; step < 50; step++) {
+                int i = random.nextInt(ratings.length);
+                ratings[i] = random.nextInt(1 + trial % 9);
+                if (tracker.updateRating(i, ratings[i]) != MinimumRewards.minRewards(ratings)) {
+                    mismatches++;
+                }
+            }
+        }
+        System.out.println("\nTest Case 2:");
+        System.out.println("Random mismatches: " + mismatches); // Expected: 0
+
+        // Test Case 3: a million updates to ten million ratings
+        int n = 10_000_000;
+        int[] ratings = new int[n];
+        for (int i = 0; i < n; i++) {
+            ratings[i] = random.nextInt(1000);
+        }
+        tracker = new MinimumRewardsIncremental(ratings);
+        int updates = 1_000_000;
+        long start = System.nanoTime();
+        for (int step = 0; step < updates; step++) {
+            tracker.updateRating(random.nextInt(n), random.nextInt(1000));
+        }
+        long incremental = System.nanoTime() - start;
+        start = System.nanoTime();
+        MinimumRewards.minRewards(ratings);
+        long recompute = System.nanoTime() - start;
+        System.out.println("\nTest Case 3:");
+        System.out.printf("%.0f ns per update, %d ms per full recomputation (total %d)%n",
+                (double) incremental / updates, recompute / 1_000_000, tracker.total());
+    }
+}
@@ -0,0 +1,223 @@
+//Question 2a - Parallel minimum rewards from associative per-segment summaries
+
+import java.nio.IntBuffer;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+public class MinimumRewardsParallel {
+
+    // Segments at or below this size are summarized with one sequential pass
+    private static final int THRESHOLD = 1 << 16;
+
+    // What a segment needs to know about its neighbours is only cin, the ascending run arriving
+    // from the left (L of the element before, if it is lower), and cout, the descending run
+    // arriving from the right. Only the ascending prefix [0, p) depends on cin and only the
+    // descending suffix [q, n) on cout, so the segment total is
+    //   mountain (p - 1 == q): q(q + 1)/2 + q cin + m(m + 1)/2 + m cout + max(q + 1 + cin, n - q + cout)
+    //   otherwise (p - 1 < q): prefix(cin) + mid + suffix(cout)
+    // with m = n - 1 - q, and rp / lq the internal R of the prefix's last element and L of the
+    // suffix's first element
+    static final class Summary {
+        final long n;
+        final int first, last;
+        final long p, q; // Ascending prefix length, start of the descending suffix
+        final long lastUp, firstDown; // Ascending run ending at the end, descending run starting at 0
+        final long rp, lq, mid; // Only used when the segment is not a mountain
+
+        Summary(long n, int first, int last, long p, long q, long lastUp, long firstDown, long rp, long lq,
+                long mid) {
+            this.n = n;
+            this.first = first;
+            this.last = last;
+            this.p = p;
+            this.q = q;
+            this.lastUp = lastUp;
+            this.firstDown = firstDown;
+            this.rp = rp;
+            this.lq = lq;
+            this.mid = mid;
+        }
+
+        boolean isMountain() {
+            return p - 1 == q;
+        }
+
+        long prefix(long cin) {
+            return (p - 1) * p / 2 + (p - 1) * cin + Math.max(p + cin, rp);
+        }
+
+        long suffix(long cout) {
+            long m = n - 1 - q;
+            return m * (m + 1) / 2 + m * cout + Math.max(lq, n - q + cout);
+        }
+
+        // Function to return the segment's share of the rewards given the runs entering it
+        long total(long cin, long cout) {
+            if (isMountain()) {
+                long m = n - 1 - q;
+                return q * (q + 1) / 2 + q * cin + m * (m + 1) / 2 + m * cout + Math.max(q + 1 + cin, n - q + cout);
+            }
+            return prefix(cin) + mid + suffix(cout);
+        }
+
+        // L of the last element and R of the first element in context
+        long lastL(long cin) {
+            return p == n ? n + cin : lastUp;
+        }
+
+        long firstR(long cout) {
+            return q == 0 ? n + cout : firstDown;
+        }
+
+        // Function to summarize ratings[lo, hi) in one pass plus two run-length scans
+        static Summary of(int[] ratings, int lo, int hi) {
+            int n = hi - lo;
+            int p = 1;
+            while (p < n && ratings[lo + p] > ratings[lo + p - 1]) {
+                p++;
+            }
+            int q = n - 1;
+            while (q > 0 && ratings[lo + q - 1] > ratings[lo + q]) {
+                q--;
+            }
+            int lastUp = 1;
+            while (lastUp < n && ratings[hi - lastUp] > ratings[hi - lastUp - 1]) {
+                lastUp++;
+            }
+            int firstDown = 1;
+            while (firstDown < n && ratings[lo + firstDown - 1] > ratings[lo + firstDown]) {
+                firstDown++;
+            }
+            if (p - 1 == q) {
+                return new Summary(n, ratings[lo], ratings[hi - 1], p, q, lastUp, firstDown, 0, 0, 0);
+            }
+
+            // The descent from p - 1 and the ascent into q both stay inside the segment
+            int rp = 1;
+            while (ratings[lo + p - 1 + rp - 1] > ratings[lo + p - 1 + rp]) {
+                rp++;
+            }
+            int lq = 1;
+            while (ratings[lo + q - lq + 1] > ratings[lo + q - lq]) {
+                lq++;
+            }
+            MinimumRewards.RewardAccumulator accumulator = new MinimumRewards.RewardAccumulator();
+            for (int i = lo; i < hi; i++) {
+                accumulator.accept(ratings[i]);
+            }
+            Summary partial = new Summary(n, ratings[lo], ratings[hi - 1], p, q, lastUp, firstDown, rp, lq, 0);
+            long mid = accumulator.total() - partial.prefix(0) - partial.suffix(0);
+            return new Summary(n, ratings[lo], ratings[hi - 1], p, q, lastUp, firstDown, rp, lq, mid);
+        }
+
+        // Function to summarize the concatenation of a and b
+        static Summary combine(Summary a, Summary b) {
+            boolean up = a.last < b.first, down = a.last > b.first;
+            long n = a.n + b.n;
+            long p = a.p == a.n && up ? a.n + b.p : a.p;
+            long q = b.q == 0 && down ? a.q : a.n + b.q;
+            long lastUp = b.lastUp == b.n && up ? b.n + a.lastUp : b.lastUp;
+            long firstDown = a.firstDown == a.n && down ? a.n + b.firstDown : a.firstDown;
+            if (p - 1 == q) {
+                return new Summary(n, a.first, b.last, p, q, lastUp, firstDown, 0, 0, 0);
+            }
+
+            // Not a mountain, so the runs crossing the boundary no longer depend on cin or cout
+            long coutA = down ? b.firstR(0) : 0;
+            long cinB = up ? a.lastL(0) : 0;
+            long rp = p <= a.n ? (a.isMountain() ? a.n - a.q + coutA : a.rp) : b.rp;
+            long lq = q >= a.n ? (b.isMountain() ? b.q + 1 + cinB : b.lq) : a.lq;
+            Summary partial = new Summary(n, a.first, b.last, p, q, lastUp, firstDown, rp, lq, 0);
+            long mid = a.total(0, coutA) + b.total(cinB, 0) - partial.prefix(0) - partial.suffix(0);
+            return new Summary(n, a.first, b.last, p, q, lastUp, firstDown, rp, lq, mid);
+        }
+    }
+
+    private static final class SummaryTask extends RecursiveTask<Summary> {
+        private static final long serialVersionUID = 1L;
+
+        final int[] ratings;
+        final int lo, hi;
+
+        SummaryTask(int[] ratings, int lo, int hi) {
+            this.ratings = ratings;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected Summary compute() {
+            if (hi - lo <= THRESHOLD) {
+                return Summary.of(ratings, lo, hi);
+            }
+            int mid = (lo + hi) >>> 1;
+            SummaryTask left = new SummaryTask(ratings, lo, mid);
+            left.fork();
+            Summary right = new SummaryTask(ratings, mid, hi).compute();
+            return Summary.combine(left.join(), right);
+        }
+    }
+
+    // Function to find the minimum rewards on the given pool; equals the sequential greedy
+    public static long minRewards(int[] ratings, ForkJoinPool pool) {
+        if (ratings.length == 0) {
+            return 0;
+        }
+        return pool.invoke(new SummaryTask(ratings, 0, ratings.length)).total(0, 0);
+    }
+
+    public static long minRewards(int[] ratings, int parallelism) {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            return minRewards(ratings, pool);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    public static void main(String[] args) {
+        // Test Case 1: folding single-element summaries at random split points matches the greedy
+        Random random = new Random(17);
+        int mismatches = 0;
+        for (int trial = 0; trial < 20_000; trial++) {
+            int[] ratings = new int[1 + random.nextInt(25)];
+            for (int i = 0; i < ratings.length; i++) {
+                ratings[i] = random.nextInt(1 + trial % 7);
+            }
+            if (randomFold(ratings, 0, ratings.length, random).total(0, 0) != MinimumRewards.minRewards(ratings)) {
+                mismatches++;
+            }
+        }
+        System.out.println("Test Case 1:");
+        System.out.println("Random mismatches: " + mismatches); // Expected: 0
+
+        // Test Case 2: large inputs at several parallelism levels (size from args[0])
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 5_000_000;
+        int[] ratings = new int[n];
+        for (int i = 0; i < n; i++) {
+            ratings[i] = random.nextInt(8) == 0 ? random.nextInt(100) : (i % 5000) * (i / 5000 % 2 == 0 ? 1 : -1);
+        }
+        System.out.println("\nTest Case 2:");
+        long start = System.nanoTime();
+        long expected = MinimumRewards.minRewards(IntBuffer.wrap(ratings));
+        System.out.printf("sequential: %6d ms %d%n", (System.nanoTime() - start) / 1_000_000, expected);
+        for (int threads = 1; threads <= 8; threads *= 2) {
+            start = System.nanoTime();
+            long result = minRewards(ratings, threads);
+            System.out.printf("%2d threads: %6d ms %d %s%n", threads, (System.nanoTime() - start) / 1_000_000,
+                    result, result == expected ? "MATCH" : "MISMATCH");
+        }
+    }
+
+    private static Summary randomFold(int[] ratings, int lo, int hi, Random random) {
+        if (hi - lo == 1) {
+            return Summary.of(ratings, lo, hi);
+        }
+        if (random.nextInt(4) == 0) {
+            return Summary.of(ratings, lo, hi);
+        }
+        int mid = lo + 1 + random.nextInt(hi - lo - 1);
+        return Summary.combine(randomFold(ratings, lo, mid, random), randomFold(ratings, mid, hi, random));
+    }
+}
@@ -6,24 +6,16 @@ public class PackageDelivery {
 
     public static int minRoadsToTraverse(int[] packages, int[][] roads) {
         int n = packages.length;
-        List<List<Integer>> graph = new ArrayList<>();
-        for (int i = 0; i < n; i++) {
-            graph.add(new ArrayList<>());
-        }
-        for (int[] road : roads) {
-            int a = road[0], b = road[1];
-            graph.get(a).add(b);
-            graph.get(b).add(a);
-        }
+        RoadGraph.Bfs bfs = new RoadGraph.Bfs(RoadGraph.of(n, roads));
 
         int minRoads = Integer.MAX_VALUE;
 
         for (int start = 0; start < n; start++) {
-            int[] distance = bfs(start, graph, n);
+            bfs.run(start);
             boolean allCollected = true;
             for (int i = 0; i < n; i++) {
-                if (packages[i] == 1 && distance[i] > 2) {
-                    allCollected = false; // If any package is beyond distance 2, skip this start node
+                if (packages[i] == 1 && (bfs.distance(i) > 2 || bfs.distance(i) == -1)) {
+                    allCollected = false; // If any package is beyond distance 2 or unreachable, skip this start node
                     break;
                 }
             }
@@ -31,7 +23,7 @@ public class PackageDelivery {
                 int totalRoads = 0;
                 for (int i = 0; i < n; i++) {
                     if (packages[i] == 1) {
-                        totalRoads += distance[i] * 2; // Round trip
+                        totalRoads += bfs.distance(i) * 2; // Round trip
                     }
                 }
                 if (totalRoads < minRoads) {
@@ -43,29 +35,156 @@ public class PackageDelivery {
         return minRoads == Integer.MAX_VALUE ? -1 : minRoads;
     }
 
-    private static int[] bfs(int start, List<List<Integer>> graph, int n) {
-        int[] distance = new int[n];
-        Arrays.fill(distance, -1);
-        Queue<Integer> queue = new LinkedList<>();
-        queue.add(start);
-        distance[start] = 0;
-
-        while (!queue.isEmpty()) {
-            int node = queue.poll();
-            for (int neighbor : graph.get(node)) {
-                if (distance[neighbor] == -1) {
-                    distance[neighbor] = distance[node] + 1;
-                    queue.add(neighbor);
+    // Same answer as minRoadsToTraverse without a BFS per start. Every package must be within 2
+    // roads of the start, so only a component holding all the packages can contain a start (any
+    // start will do, at cost 0, when there are no packages). Inside that component the candidate
+    // starts are the depth-2 ball of its first package, and every further package removes the
+    // candidates more than 2 roads away while adding its distance to the survivors' sums. Each
+    // package costs O(deg(p)) plus the cheaper of a depth-2 search from it or a scan of the
+    // surviving candidates' neighbours, which is O(n + m + P d^2) on road graphs of bounded degree d
+    public static int minRoadsToTraverseFast(int[] packages, int[][] roads) {
+        int n = packages.length;
+        RoadGraph graph = RoadGraph.of(n, roads);
+        RoadGraph.Bfs bfs = new RoadGraph.Bfs(graph);
+
+        // Components, listing each one's packages
+        boolean[] seen = new boolean[n];
+        int totalPackages = 0;
+        List<int[]> componentPackages = new ArrayList<>();
+        for (int root = 0; root < n; root++) {
+            if (seen[root]) {
+                continue;
+            }
+            bfs.run(root);
+            int found = 0;
+            for (int i = 0; i < bfs.reached(); i++) {
+                int v = bfs.reachedNode(i);
+                seen[v] = true;
+                found += packages[v] == 1 ? 1 : 0;
+            }
+            int[] list = new int[found];
+            found = 0;
+            for (int i = 0; i < bfs.reached(); i++) {
+                if (packages[bfs.reachedNode(i)] == 1) {
+                    list[found++] = bfs.reachedNode(i);
                 }
             }
+            componentPackages.add(list);
+            totalPackages += list.length;
         }
 
-        return distance;
+        long best = Long.MAX_VALUE;
+        int[] candidates = new int[n];
+        long[] sums = new long[n];
+        for (int[] list : componentPackages) {
+            if (list.length < totalPackages) {
+                continue; // Some package is unreachable from this component
+            }
+            if (list.length == 0) {
+                best = 0;
+                continue;
+            }
+
+            // Candidates: the depth-2 ball around the first package
+            bfs.run(list[0], 2);
+            int count = bfs.reached();
+            long candidateDegrees = 0;
+            for (int k = 0; k < count; k++) {
+                candidates[k] = bfs.reachedNode(k);
+                sums[k] = bfs.distance(candidates[k]);
+                candidateDegrees += graph.degree(candidates[k]);
+            }
+
+            for (int i = 1; i < list.length && count > 0; i++) {
+                int p = list[i];
+                long ballCost = 0;
+                for (int k = graph.offsets[p]; k < graph.offsets[p + 1]; k++) {
+                    ballCost += graph.degree(graph.targets[k]);
+                }
+                // Either search 2 roads out from p, or only 1 and find distance 2 from the candidate's side
+                boolean fullBall = ballCost <= candidateDegrees;
+                bfs.run(p, fullBall ? 2 : 1);
+
+                int kept = 0;
+                candidateDegrees = 0;
+                for (int k = 0; k < count; k++) {
+                    int s = candidates[k];
+                    int d = bfs.distance(s);
+                    if (d == -1 && !fullBall) {
+                        for (int j = graph.offsets[s]; j < graph.offsets[s + 1]; j++) {
+                            if (bfs.distance(graph.targets[j]) == 1) {
+                                d = 2;
+                                break;
+                            }
+                        }
+                    }
+                    if (d != -1) {
+                        candidates[kept] = s;
+                        sums[kept++] = sums[k] + d;
+                        candidateDegrees += graph.degree(s);
+                    }
+                }
+                count = kept;
+            }
+            for (int k = 0; k < count; k++) {
+                best = Math.min(best, 2 * sums[k]);
+            }
+        }
+        return best == Long.MAX_VALUE ? -1 : (int) best;
     }
 
     public static void main(String[] args) {
         int[] packages = { 1, 0, 0, 0, 0, 1 };
         int[][] roads = { { 0, 1 }, { 1, 2 }, { 2, 3 }, { 3, 4 }, { 4, 5 } };
-        System.out.println(minRoadsToTraverse(packages, roads)); // Output: 4
+        System.out.println(minRoadsToTraverse(packages, roads)); // Output: -1 (no node is within 2 roads of both)
+        System.out.println(minRoadsToTraverseFast(packages, roads)); // Same as above
+
+        // A package in another component can never be collected
+        int[] split = { 1, 0, 0, 1 };
+        int[][] splitRoads = { { 0, 1 }, { 2, 3 } };
+        System.out.println(minRoadsToTraverse(split, splitRoads)); // Output: -1
+        System.out.println(minRoadsToTraverseFast(split, splitRoads)); // Same as above
+
+        // Random graphs (sparse, dense, disconnected) against the BFS from every node
+        Random random = new Random(23);
+        int mismatches = 0;
+        for (int trial = 0; trial < 3000; trial++) {
+            int n = 1 + random.nextInt(14);
+            int[] pk = new int[n];
+            for (int i = 0; i < n; i++) {
+                pk[i] = random.nextInt(1 + trial % 4) == 0 ? 1 : 0;
+            }
+            int[][] rd = new int[random.nextInt(2 * n)][];
+            for (int i = 0; i < rd.length; i++) {
+                rd[i] = new int[] { random.nextInt(n), random.nextInt(n) };
+            }
+            if (minRoadsToTraverse(pk, rd) != minRoadsToTraverseFast(pk, rd)) {
+                mismatches++;
+            }
+        }
+        System.out.println("Random mismatches: " + mismatches); // Expected: 0
+
+        // A 1000 x 1000 grid of intersections with packages clustered around one corner
+        int side = 1000, n = side * side;
+        int[] pk = new int[n];
+        for (int i = 0; i < 6; i++) {
+            pk[(500 + i % 2) * side + 500 + i / 2] = 1;
+        }
+        int[][] rd = new int[2 * side * (side - 1)][];
+        int r = 0;
+        for (int row = 0; row < side; row++) {
+            for (int col = 0; col < side; col++) {
+                if (col + 1 < side) {
+                    rd[r++] = new int[] { row * side + col, row * side + col + 1 };
+                }
+                if (row + 1 < side) {
+                    rd[r++] = new int[] { row * side + col, (row + 1) * side + col };
+                }
+            }
+        }
+        long start = System.nanoTime();
+        int result = minRoadsToTraverseFast(pk, rd);
+        System.out.println("Grid of " + n + " intersections: " + result + " in "
+                + (System.nanoTime() - start) / 1_000_000 + " ms");
     }
 }
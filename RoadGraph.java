@@ -0,0 +1,274 @@
+//4b - Compressed sparse row road graph with a reusable breadth-first search
+
+import java.util.*;
+
+// Undirected graph over nodes 0..n-1 stored as compressed rows: the neighbours of v are
+// targets[offsets[v], offsets[v + 1]). Each road appears once in each endpoint's row
+public class RoadGraph {
+
+    final int n;
+    final int[] offsets, targets;
+
+    private RoadGraph(int n, int[] offsets, int[] targets) {
+        this.n = n;
+        this.offsets = offsets;
+        this.targets = targets;
+    }
+
+    // Function to build the graph from road endpoints; road i joins from[i] and to[i]
+    public static RoadGraph of(int n, int[] from, int[] to) {
+        int[] offsets = new int[n + 1];
+        for (int i = 0; i < from.length; i++) {
+            offsets[from[i] + 1]++;
+            offsets[to[i] + 1]++;
+        }
+        for (int v = 0; v < n; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+        int[] targets = new int[offsets[n]];
+        int[] fill = Arrays.copyOf(offsets, n);
+        for (int i = 0; i < from.length; i++) {
+            targets[fill[from[i]]++] = to[i];
+            targets[fill[to[i]]++] = from[i];
+        }
+        return new RoadGraph(n, offsets, targets);
+    }
+
+    public static RoadGraph of(int n, int[][] roads) {
+        int[] from = new int[roads.length], to = new int[roads.length];
+        for (int i = 0; i < roads.length; i++) {
+            from[i] = roads[i][0];
+            to[i] = roads[i][1];
+        }
+        return of(n, from, to);
+    }
+
+    public int size() {
+        return n;
+    }
+
+    public int degree(int v) {
+        return offsets[v + 1] - offsets[v];
+    }
+
+    // First-in first-out queue of ints in a ring buffer that doubles when full
+    static final class IntQueue {
+        private int[] items = new int[16];
+        private int head, size;
+
+        void add(int value) {
+            if (size == items.length) {
+                int[] grown = new int[items.length * 2];
+                for (int k = 0; k < size; k++) {
+                    grown[k] = items[(head + k) & (items.length - 1)];
+                }
+                items = grown;
+                head = 0;
+            }
+            items[(head + size++) & (items.length - 1)] = value;
+        }
+
+        int poll() {
+            int value = items[head];
+            head = (head + 1) & (items.length - 1);
+            size--;
+            return value;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void clear() {
+            head = 0;
+            size = 0;
+        }
+    }
+
+    // Breadth-first search whose arrays are allocated once and reused by every run: a node's
+    // distance is valid only while its stamp equals the current run's epoch, so starting a new
+    // run costs nothing beyond the nodes it reaches
+    public static final class Bfs {
+        private final RoadGraph graph;
+        private final int[] stamp, distance, order;
+        private final IntQueue queue = new IntQueue();
+        private int epoch, reached;
+
+        public Bfs(RoadGraph graph) {
+            this.graph = graph;
+            this.stamp = new int[graph.n];
+            this.distance = new int[graph.n];
+            this.order = new int[graph.n];
+        }
+
+        public void run(int start) {
+            run(start, Integer.MAX_VALUE);
+        }
+
+        // Function to search from start, stopping at maxDepth roads
+        public void run(int start, int maxDepth) {
+            if (++epoch == 0) {
+                Arrays.fill(stamp, 0); // Stamps wrapped around; start over
+                epoch = 1;
+            }
+            int[] offsets = graph.offsets, targets = graph.targets;
+            queue.clear();
+            reached = 0;
+            stamp[start] = epoch;
+            distance[start] = 0;
+            order[reached++] = start;
+            queue.add(start);
+            while (!queue.isEmpty()) {
+                int v = queue.poll();
+                if (distance[v] == maxDepth) {
+                    continue;
+                }
+                for (int k = offsets[v]; k < offsets[v + 1]; k++) {
+                    int w = targets[k];
+                    if (stamp[w] != epoch) {
+                        stamp[w] = epoch;
+                        distance[w] = distance[v] + 1;
+                        order[reached++] = w;
+                        queue.add(w);
+                    }
+                }
+            }
+        }
+
+        // Distance from the last start, or -1 if the last run did not reach v
+        public int distance(int v) {
+            return stamp[v] == epoch ? distance[v] : -1;
+        }
+
+        // Number of nodes the last run reached and the i-th of them in visiting order
+        public int reached() {
+            return reached;
+        }
+
+        public int reachedNode(int i) {
+            return order[i];
+        }
+
+        // Function to copy the last run's distances into a new array, -1 for unreached nodes
+        public int[] distances() {
+            int[] result = new int[graph.n];
+            Arrays.fill(result, -1);
+            for (int i = 0; i < reached; i++) {
+                result[order[i]] = distance[order[i]];
+            }
+            return result;
+        }
+    }
+
+    // The List<List<Integer>> graph and LinkedList BFS that PackageDelivery used before this class,
+    // kept here as the benchmark baseline
+    private static List<List<Integer>> adjacencyLists(int n, int[][] roads) {
+        List<List<Integer>> graph = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            graph.add(new ArrayList<>());
+        }
+        for (int[] road : roads) {
+            graph.get(road[0]).add(road[1]);
+            graph.get(road[1]).add(road[0]);
+        }
+        return graph;
+    }
+
+    private static int[] listBfs(int start, List<List<Integer>> graph, int n) {
+        int[] distance = new int[n];
+        Arrays.fill(distance, -1);
+        Queue<Integer> queue = new LinkedList<>();
+        queue.add(start);
+        distance[start] = 0;
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
+            for (int neighbor : graph.get(node)) {
+                if (distance[neighbor] == -1) {
+                    distance[neighbor] = distance[node] + 1;
+                    queue.add(neighbor);
+                }
+            }
+        }
+        return distance;
+    }
+
+    public static void main(String[] args) {
+        // Test Case 1: distances match the list-based BFS on random graphs
+        Random random = new Random(24);
+        int mismatches = 0;
+        for (int trial = 0; trial < 500; trial++) {
+            int n = 1 + random.nextInt(40);
+            int[][] roads = new int[random.nextInt(3 * n)][];
+            for (int i = 0; i < roads.length; i++) {
+                roads[i] = new int[] { random.nextInt(n), random.nextInt(n) };
+            }
+            Bfs bfs = new Bfs(of(n, roads));
+            List<List<Integer>> lists = adjacencyLists(n, roads);
+            for (int start = 0; start < n; start++) {
+                bfs.run(start);
+                if (!Arrays.equals(bfs.distances(), listBfs(start, lists, n))) {
+                    mismatches++;
+                }
+            }
+        }
+        System.out.println("Test Case 1:");
+        System.out.println("Random mismatches: " + mismatches); // Expected: 0
+
+        // Test Case 2: 2 * 10^6 roads between 4 * 10^5 intersections (args[0] = 10000000 for the 10^7 run)
+        int m = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000, n = Math.max(1, m / 5);
+        int[][] roads = new int[m][];
+        for (int i = 0; i < m; i++) {
+            roads[i] = new int[] { random.nextInt(n), random.nextInt(n) };
+        }
+        long start = System.nanoTime();
+        RoadGraph graph = of(n, roads);
+        long csrBuild = System.nanoTime() - start;
+        start = System.nanoTime();
+        List<List<Integer>> lists = adjacencyLists(n, roads);
+        long listBuild = System.nanoTime() - start;
+        System.out.println("\nTest Case 2:");
+        System.out.printf("build: CSR %d ms, List<List<Integer>> %d ms%n", csrBuild / 1_000_000,
+                listBuild / 1_000_000);
+
+        // Sources come from the largest component, so a run never times an isolated intersection
+        Bfs bfs = new Bfs(graph);
+        boolean[] seen = new boolean[n];
+        int giantRoot = 0, giantSize = 0;
+        for (int root = 0; root < n; root++) {
+            if (!seen[root]) {
+                bfs.run(root);
+                for (int i = 0; i < bfs.reached(); i++) {
+                    seen[bfs.reachedNode(i)] = true;
+                }
+                if (bfs.reached() > giantSize) {
+                    giantSize = bfs.reached();
+                    giantRoot = root;
+                }
+            }
+        }
+        bfs.run(giantRoot);
+        int[] giant = new int[giantSize];
+        for (int i = 0; i < giantSize; i++) {
+            giant[i] = bfs.reachedNode(i);
+        }
+        System.out.println("largest component: " + giantSize + " of " + n + " intersections");
+
+        int runs = 5;
+        long csrTime = 0, listTime = 0;
+        boolean same = true;
+        for (int r = 0; r < runs; r++) {
+            int source = giant[random.nextInt(giantSize)];
+            start = System.nanoTime();
+            bfs.run(source);
+            csrTime += System.nanoTime() - start;
+            start = System.nanoTime();
+            int[] expected = listBfs(source, lists, n);
+            listTime += System.nanoTime() - start;
+            for (int v = 0; v < n && same; v++) {
+                same = bfs.distance(v) == expected[v];
+            }
+        }
+        System.out.printf("BFS: CSR %d ms, List<List<Integer>> + LinkedList %d ms per run %s%n",
+                csrTime / runs / 1_000_000, listTime / runs / 1_000_000, same ? "MATCH" : "MISMATCH");
+    }
+}
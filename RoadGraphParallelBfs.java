@@ -0,0 +1,285 @@
+//4b - Parallel direction-optimizing breadth-first search over a RoadGraph
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Level-synchronous BFS that picks a direction per level. Small frontiers are a list of nodes
+// expanded top-down: each node claims its unvisited neighbours with compareAndSet on the visited
+// bitset. Large frontiers are a bitset expanded bottom-up: every unvisited node looks for any
+// neighbour in the frontier and stops at the first one, which skips most edges once the
+// frontier covers much of the graph. Long thin graphs stay top-down and never pay for
+// whole-bitset scans
+public class RoadGraphParallelBfs {
+
+    // Leaf sizes: bitset words (64 nodes each) for bottom-up levels, list entries for top-down
+    private static final int CHUNK_WORDS = 1 << 10, CHUNK_NODES = 1 << 11;
+    // Switch to bottom-up when frontier edges exceed unexplored edges / ALPHA, and back to
+    // top-down when the frontier falls below n / BETA nodes
+    private static final int ALPHA = 14, BETA = 24;
+
+    private interface Range {
+        long apply(int from, int to);
+    }
+
+    // Runs body over [from, to) in parallel leaves of at most grain and sums what they return
+    private static final class RangeTask extends RecursiveTask<Long> {
+        private static final long serialVersionUID = 1L;
+
+        final Range body;
+        final int from, to, grain;
+
+        RangeTask(Range body, int from, int to, int grain) {
+            this.body = body;
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+        }
+
+        @Override
+        protected Long compute() {
+            if (to - from <= grain) {
+                return body.apply(from, to);
+            }
+            int mid = (from + to) >>> 1;
+            RangeTask left = new RangeTask(body, from, mid, grain);
+            left.fork();
+            long right = new RangeTask(body, mid, to, grain).compute();
+            return right + left.join();
+        }
+    }
+
+    private static long forRange(ForkJoinPool pool, int size, int grain, Range body) {
+        if (size == 0) {
+            return 0;
+        }
+        return size <= grain ? body.apply(0, size) : pool.invoke(new RangeTask(body, 0, size, grain));
+    }
+
+    // Function to set bit v; returns false if it was already set
+    private static boolean claim(AtomicLongArray bits, int v) {
+        int word = v >>> 6;
+        long bit = 1L << v;
+        while (true) {
+            long old = bits.get(word);
+            if ((old & bit) != 0) {
+                return false;
+            }
+            if (bits.compareAndSet(word, old, old | bit)) {
+                return true;
+            }
+        }
+    }
+
+    // Function to return the distance from start to every node (-1 if unreachable), the same
+    // array RoadGraph.Bfs.distances() produces
+    public static int[] bfs(RoadGraph graph, int start, ForkJoinPool pool) {
+        int n = graph.n;
+        int words = (n + 63) >>> 6;
+        int[] offsets = graph.offsets, targets = graph.targets;
+        int[] distance = new int[n];
+        AtomicLongArray visited = new AtomicLongArray(words);
+        AtomicLongArray[] bits = { new AtomicLongArray(words), new AtomicLongArray(words) };
+        int[][] lists = { new int[n], new int[n] };
+        AtomicInteger cursor = new AtomicInteger();
+
+        forRange(pool, n, CHUNK_WORDS << 6, (from, to) -> {
+            Arrays.fill(distance, from, to, -1);
+            return 0;
+        });
+        distance[start] = 0;
+        claim(visited, start);
+        lists[0][0] = start;
+
+        int listSize = 1;
+        boolean frontierInBits = false;
+        long frontierNodes = 1, frontierEdges = graph.degree(start);
+        long unexploredEdges = targets.length - frontierEdges;
+        boolean bottomUp = false;
+        for (int level = 0; frontierNodes > 0; level++) {
+            int nextLevel = level + 1;
+            if (!bottomUp && frontierEdges > unexploredEdges / ALPHA) {
+                bottomUp = true;
+            } else if (bottomUp && frontierNodes < n / BETA) {
+                bottomUp = false;
+            }
+
+            if (bottomUp) {
+                if (!frontierInBits) {
+                    AtomicLongArray target = bits[0];
+                    int[] list = lists[0];
+                    forRange(pool, words, CHUNK_WORDS, (from, to) -> {
+                        for (int w = from; w < to; w++) {
+                            target.set(w, 0);
+                        }
+                        return 0;
+                    });
+                    forRange(pool, listSize, CHUNK_NODES, (from, to) -> {
+                        for (int i = from; i < to; i++) {
+                            claim(target, list[i]);
+                        }
+                        return 0;
+                    });
+                    frontierInBits = true;
+                }
+                AtomicLongArray current = bits[0], next = bits[1];
+
+                // Each leaf owns its words of visited and next, so plain sets are enough. Leaves
+                // return (nodes found << 32 | their degree sum)
+                long found = forRange(pool, words, CHUNK_WORDS, (from, to) -> {
+                    long nodes = 0, edges = 0;
+                    for (int w = from; w < to; w++) {
+                        long unvisited = ~visited.get(w);
+                        if (w == words - 1 && (n & 63) != 0) {
+                            unvisited &= (1L << (n & 63)) - 1;
+                        }
+                        long reached = 0;
+                        while (unvisited != 0) {
+                            int v = (w << 6) + Long.numberOfTrailingZeros(unvisited);
+                            unvisited &= unvisited - 1;
+                            for (int k = offsets[v]; k < offsets[v + 1]; k++) {
+                                int u = targets[k];
+                                if ((current.get(u >>> 6) & (1L << u)) != 0) {
+                                    distance[v] = nextLevel;
+                                    reached |= 1L << v;
+                                    nodes++;
+                                    edges += offsets[v + 1] - offsets[v];
+                                    break;
+                                }
+                            }
+                        }
+                        if (reached != 0) {
+                            visited.set(w, visited.get(w) | reached);
+                        }
+                        next.set(w, reached);
+                    }
+                    return nodes << 32 | edges;
+                });
+                bits[0] = next;
+                bits[1] = current;
+                frontierNodes = found >>> 32;
+                frontierEdges = found & 0xFFFFFFFFL;
+            } else {
+                if (frontierInBits) {
+                    // Back to a list: gather the frontier bitset
+                    AtomicLongArray current = bits[0];
+                    int[] list = lists[0];
+                    cursor.set(0);
+                    forRange(pool, words, CHUNK_WORDS, (from, to) -> {
+                        for (int w = from; w < to; w++) {
+                            long word = current.get(w);
+                            while (word != 0) {
+                                list[cursor.getAndIncrement()] = (w << 6) + Long.numberOfTrailingZeros(word);
+                                word &= word - 1;
+                            }
+                        }
+                        return 0;
+                    });
+                    listSize = cursor.get();
+                    frontierInBits = false;
+                }
+                int[] list = lists[0], nextList = lists[1];
+                cursor.set(0);
+                frontierEdges = forRange(pool, listSize, CHUNK_NODES, (from, to) -> {
+                    long edges = 0;
+                    for (int i = from; i < to; i++) {
+                        int v = list[i];
+                        for (int k = offsets[v]; k < offsets[v + 1]; k++) {
+                            int u = targets[k];
+                            if (claim(visited, u)) {
+                                distance[u] = nextLevel;
+                                nextList[cursor.getAndIncrement()] = u;
+                                edges += offsets[u + 1] - offsets[u];
+                            }
+                        }
+                    }
+                    return edges;
+                });
+                lists[0] = nextList;
+                lists[1] = list;
+                listSize = cursor.get();
+                frontierNodes = listSize;
+            }
+            unexploredEdges -= frontierEdges;
+        }
+        return distance;
+    }
+
+    public static int[] bfs(RoadGraph graph, int start, int parallelism) {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            return bfs(graph, start, pool);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    public static void main(String[] args) {
+        // Test Case 1: random graphs of every density against the sequential RoadGraph.Bfs
+        Random random = new Random(25);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        int mismatches = 0;
+        for (int trial = 0; trial < 1000; trial++) {
+            int n = 1 + random.nextInt(300);
+            int[][] roads = new int[random.nextInt(1 + n * (1 + trial % 12))][];
+            for (int i = 0; i < roads.length; i++) {
+                roads[i] = new int[] { random.nextInt(n), random.nextInt(n) };
+            }
+            RoadGraph graph = RoadGraph.of(n, roads);
+            RoadGraph.Bfs sequential = new RoadGraph.Bfs(graph);
+            int start = random.nextInt(n);
+            sequential.run(start);
+            if (!Arrays.equals(bfs(graph, start, pool), sequential.distances())) {
+                mismatches++;
+            }
+        }
+        pool.shutdown();
+        System.out.println("Test Case 1:");
+        System.out.println("Random mismatches: " + mismatches); // Expected: 0
+
+        // Test Case 2: a 1000 x 1000 street grid and a random graph with 2 * 10^6 roads (args[0] sets the
+        // road count, 10000000 for the 10^7 run)
+        int side = 1000;
+        int[] gridFrom = new int[2 * side * (side - 1)], gridTo = new int[gridFrom.length];
+        int r = 0;
+        for (int row = 0; row < side; row++) {
+            for (int col = 0; col < side; col++) {
+                if (col + 1 < side) {
+                    gridFrom[r] = row * side + col;
+                    gridTo[r++] = row * side + col + 1;
+                }
+                if (row + 1 < side) {
+                    gridFrom[r] = row * side + col;
+                    gridTo[r++] = (row + 1) * side + col;
+                }
+            }
+        }
+        int m = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000, n = Math.max(1, m / 5);
+        int[] randomFrom = new int[m], randomTo = new int[m];
+        for (int i = 0; i < m; i++) {
+            randomFrom[i] = random.nextInt(n);
+            randomTo[i] = random.nextInt(n);
+        }
+        RoadGraph[] graphs = { RoadGraph.of(side * side, gridFrom, gridTo), RoadGraph.of(n, randomFrom, randomTo) };
+        String[] names = { "grid", "random" };
+
+        System.out.println("\nTest Case 2 (" + Runtime.getRuntime().availableProcessors() + " cores):");
+        for (int g = 0; g < graphs.length; g++) {
+            RoadGraph graph = graphs[g];
+            RoadGraph.Bfs sequential = new RoadGraph.Bfs(graph);
+            long start = System.nanoTime();
+            sequential.run(0);
+            int[] expected = sequential.distances();
+            System.out.printf("%s: sequential %6d ms%n", names[g], (System.nanoTime() - start) / 1_000_000);
+            for (int threads = 1; threads <= 8; threads *= 2) {
+                start = System.nanoTime();
+                int[] result = bfs(graph, 0, threads);
+                System.out.printf("%s: %d threads %5d ms %s%n", names[g], threads, (System.nanoTime() - start)
+                        / 1_000_000, Arrays.equals(result, expected) ? "MATCH" : "MISMATCH");
+            }
+        }
+    }
+}
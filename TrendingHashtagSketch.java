@@ -0,0 +1,201 @@
+//4a - Approximate heavy hitters (Count-Min Sketch + Space-Saving)
+
+import java.time.LocalDate;
+import java.util.*;
+
+// One sketch covers one batch or one window bucket; TrendingHashtagStream.approximate keeps a
+// sketch per live bucket so memory stays fixed per window
+public class TrendingHashtagSketch {
+
+    // A top-K result whose true count lies in [getValue() - errorBound, getValue()]
+    static class Estimate extends AbstractMap.SimpleImmutableEntry<String, Integer> {
+        private static final long serialVersionUID = 1L;
+
+        final int errorBound;
+
+        Estimate(String hashtag, int count, int errorBound) {
+            super(hashtag, count);
+            this.errorBound = errorBound;
+        }
+
+        public int getErrorBound() {
+            return errorBound;
+        }
+
+        @Override
+        public String toString() {
+            return getKey() + "=" + getValue() + "(-" + errorBound + ")";
+        }
+    }
+
+    // Space-Saving slot: monitored hashtag, its (over)counted value and the overcount bound
+    private static class Slot {
+        final String hashtag;
+        int count;
+        int error;
+
+        Slot(String hashtag, int count, int error) {
+            this.hashtag = hashtag;
+            this.count = count;
+            this.error = error;
+        }
+    }
+
+    private static final Comparator<Slot> BY_COUNT = (a, b) -> {
+        int countCompare = Integer.compare(a.count, b.count);
+        return countCompare != 0 ? countCompare : a.hashtag.compareTo(b.hashtag);
+    };
+
+    // Count-Min Sketch: depth rows of width counters
+    private final int width;
+    private final int depth;
+    private final int[][] table;
+    private final long[] seeds;
+
+    // Space-Saving summary holding at most capacity hashtags
+    private final int capacity;
+    private final Map<String, Slot> monitored;
+    private final TreeSet<Slot> byCount = new TreeSet<>(BY_COUNT);
+
+    private long total; // Number of hashtag occurrences seen
+
+    // epsilon: error as a fraction of the total count, delta: failure probability of the sketch
+    public TrendingHashtagSketch(double epsilon, double delta) {
+        if (epsilon <= 0 || epsilon >= 1 || delta <= 0 || delta >= 1) {
+            throw new IllegalArgumentException("epsilon and delta must be in (0, 1)");
+        }
+        this.width = (int) Math.ceil(Math.E / epsilon);
+        this.depth = (int) Math.ceil(Math.log(1 / delta));
+        this.table = new int[depth][width];
+        this.seeds = new long[depth];
+        Random random = new Random(0x5EEDL);
+        for (int i = 0; i < depth; i++) {
+            seeds[i] = random.nextLong() | 1;
+        }
+        this.capacity = (int) Math.ceil(1 / epsilon);
+        this.monitored = new HashMap<>(capacity * 2);
+    }
+
+    // Function to pick the counter of a hashtag in one sketch row
+    private int column(int row, int hash) {
+        long h = (hash ^ (hash >>> 16)) * seeds[row];
+        h ^= h >>> 31;
+        return (int) Long.remainderUnsigned(h, width);
+    }
+
+    // Function to record one occurrence of a hashtag
+    public void add(String hashtag) {
+        total++;
+
+        // Count-Min update and point estimate
+        int hash = hashtag.hashCode();
+        int sketchEstimate = Integer.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            int col = column(row, hash);
+            table[row][col]++;
+            sketchEstimate = Math.min(sketchEstimate, table[row][col]);
+        }
+
+        // Space-Saving update
+        Slot slot = monitored.get(hashtag);
+        if (slot != null) {
+            byCount.remove(slot);
+            slot.count++;
+        } else if (monitored.size() < capacity) {
+            slot = new Slot(hashtag, 1, 0);
+            monitored.put(hashtag, slot);
+        } else {
+            // Evict the smallest slot; the newcomer inherits its count as overcount
+            Slot evicted = byCount.pollFirst();
+            monitored.remove(evicted.hashtag);
+            slot = new Slot(hashtag, evicted.count + 1, evicted.count);
+            monitored.put(hashtag, slot);
+        }
+        byCount.add(slot);
+    }
+
+    // Count-Min point estimate (never below the true count)
+    public int estimate(String hashtag) {
+        int hash = hashtag.hashCode();
+        int sketchEstimate = Integer.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            sketchEstimate = Math.min(sketchEstimate, table[row][column(row, hash)]);
+        }
+        return sketchEstimate;
+    }
+
+    // Tightest count known never to be below the true count
+    int upperBound(String hashtag) {
+        Slot slot = monitored.get(hashtag);
+        int sketchEstimate = estimate(hashtag);
+        // Both counts overestimate, so the smaller one is still an upper bound
+        return slot != null ? Math.min(slot.count, sketchEstimate) : sketchEstimate;
+    }
+
+    // Count known never to be above the true count (0 for hashtags Space-Saving is not monitoring)
+    int lowerBound(String hashtag) {
+        Slot slot = monitored.get(hashtag);
+        return slot != null ? slot.count - slot.error : 0;
+    }
+
+    // Hashtags currently held by the Space-Saving summary
+    Set<String> monitoredHashtags() {
+        return Collections.unmodifiableSet(monitored.keySet());
+    }
+
+    // Function to return the K heaviest hashtags with their error bounds
+    public List<Estimate> topK(int k) {
+        List<Estimate> estimates = new ArrayList<>(monitored.size());
+        for (Slot slot : monitored.values()) {
+            int count = upperBound(slot.hashtag);
+            estimates.add(new Estimate(slot.hashtag, count, count - lowerBound(slot.hashtag)));
+        }
+        estimates.sort(TrendingHashtags.TRENDING_ORDER);
+        return estimates.subList(0, Math.min(k, estimates.size()));
+    }
+
+    // Worst-case Space-Saving error for any hashtag: total / capacity
+    public long maxError() {
+        return total / capacity;
+    }
+
+    // Counters held by the sketch and summary; independent of the number of distinct hashtags
+    public int footprint() {
+        return width * depth + capacity;
+    }
+
+    public static void main(String[] args) {
+        // Test Case 1: the February sample from TrendingHashtags
+        List<TrendingHashtags.Tweet> tweets = Arrays.asList(
+                new TrendingHashtags.Tweet(135, 13, LocalDate.of(2024, 2, 1),
+                        "Enjoying a great start to the day. #HappyDay #MorningVibes"),
+                new TrendingHashtags.Tweet(136, 14, LocalDate.of(2024, 2, 3), "Another #HappyDay with good vibes! #FeelGood"),
+                new TrendingHashtags.Tweet(137, 15, LocalDate.of(2024, 2, 4), "Productivity peaks! #Worklife #ProductiveDay"),
+                new TrendingHashtags.Tweet(138, 16, LocalDate.of(2024, 2, 4), "Exploring new tech frontiers. #TechLife #Innovation"),
+                new TrendingHashtags.Tweet(139, 17, LocalDate.of(2024, 2, 5), "Gratitude for today's moments. #HappyDay #Thankful"),
+                new TrendingHashtags.Tweet(140, 18, LocalDate.of(2024, 2, 7), "Innovation drives us. #TechLife #FutureTech"),
+                new TrendingHashtags.Tweet(141, 19, LocalDate.of(2024, 2, 9), "Connecting with nature's serenity. #Nature #Peaceful"));
+        System.out.println("Test Case 1:");
+        System.out.println("Output: " + TrendingHashtags.findTopTrendingHashtagsApprox(tweets, 0.01, 0.01));
+        // Expected: [#HappyDay=3(-0), #TechLife=2(-0), #Worklife=1(-0)]
+
+        // Test Case 2: a spam campaign of 100000 one-off hashtags next to three real trends
+        TrendingHashtagSketch sketch = new TrendingHashtagSketch(0.001, 0.01);
+        Random random = new Random(42);
+        for (int i = 0; i < 100000; i++) {
+            sketch.add("#spam" + i);
+            if (random.nextInt(4) == 0) {
+                sketch.add("#Election");
+            }
+            if (random.nextInt(8) == 0) {
+                sketch.add("#Weather");
+            }
+            if (random.nextInt(16) == 0) {
+                sketch.add("#Football");
+            }
+        }
+        System.out.println("\nTest Case 2:");
+        System.out.println("Output: " + sketch.topK(3)); // Expected: #Election, #Weather, #Football
+        System.out.println("Counters held: " + sketch.footprint() + ", max error: " + sketch.maxError());
+    }
+}
@@ -0,0 +1,304 @@
+//4a - Streaming hashtag counts over sliding / tumbling windows
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+
+public class TrendingHashtagStream {
+
+    // Size of one window bucket
+    enum Granularity {
+        HOUR, DAY, MONTH
+    }
+
+    // Running count of one hashtag across all live buckets
+    private static class Counter {
+        final String hashtag;
+        int count;
+
+        Counter(String hashtag) {
+            this.hashtag = hashtag;
+        }
+    }
+
+    // Same order as findTopTrendingHashtags: count descending, then hashtag descending
+    private static final Comparator<Counter> RANKING = (a, b) -> {
+        int countCompare = Integer.compare(b.count, a.count);
+        if (countCompare != 0) {
+            return countCompare;
+        }
+        return b.hashtag.compareTo(a.hashtag);
+    };
+
+    private final Granularity granularity;
+    private final int windowSize; // Number of buckets in one window
+    private final boolean tumbling; // Tumbling windows reset, sliding windows drop one bucket at a time
+
+    // Bucket id -> hashtag counts inside that bucket (only live buckets are kept)
+    private final TreeMap<Long, Map<String, Integer>> buckets = new TreeMap<>();
+    // Hashtag -> total count over the live buckets
+    private final Map<String, Counter> totals = new HashMap<>();
+    // Live hashtags kept in ranking order so top-K never sorts the whole key set
+    private final TreeSet<Counter> ranking = new TreeSet<>(RANKING);
+
+    // Approximate mode: bucket id -> fixed-size sketch of that bucket, replacing the exact maps above
+    private final boolean approximate;
+    private final double epsilon, delta;
+    private final TreeMap<Long, TrendingHashtagSketch> sketches = new TreeMap<>();
+
+    private long latestBucket = Long.MIN_VALUE;
+
+    public TrendingHashtagStream(Granularity granularity, int windowSize, boolean tumbling) {
+        this(granularity, windowSize, tumbling, false, 0, 0);
+    }
+
+    private TrendingHashtagStream(Granularity granularity, int windowSize, boolean tumbling, boolean approximate,
+            double epsilon, double delta) {
+        if (windowSize < 1) {
+            throw new IllegalArgumentException("windowSize must be at least 1");
+        }
+        if (approximate && (epsilon <= 0 || epsilon >= 1 || delta <= 0 || delta >= 1)) {
+            throw new IllegalArgumentException("epsilon and delta must be in (0, 1)");
+        }
+        this.granularity = granularity;
+        this.windowSize = windowSize;
+        this.tumbling = tumbling;
+        this.approximate = approximate;
+        this.epsilon = epsilon;
+        this.delta = delta;
+    }
+
+    public static TrendingHashtagStream sliding(Granularity granularity, int windowSize) {
+        return new TrendingHashtagStream(granularity, windowSize, false);
+    }
+
+    public static TrendingHashtagStream tumbling(Granularity granularity, int windowSize) {
+        return new TrendingHashtagStream(granularity, windowSize, true);
+    }
+
+    // Window of TrendingHashtagSketch buckets: memory is windowSize sketches whatever the number of
+    // distinct hashtags, and topK returns TrendingHashtagSketch.Estimate entries
+    public static TrendingHashtagStream approximate(Granularity granularity, int windowSize, boolean tumbling,
+            double epsilon, double delta) {
+        return new TrendingHashtagStream(granularity, windowSize, tumbling, true, epsilon, delta);
+    }
+
+    // Function to map a timestamp to its bucket id
+    private long bucketOf(LocalDateTime time) {
+        switch (granularity) {
+            case HOUR:
+                return Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), 3600);
+            case DAY:
+                return time.toLocalDate().toEpochDay();
+            default:
+                return time.getYear() * 12L + (time.getMonthValue() - 1);
+        }
+    }
+
+    // First bucket id that still belongs to the current window
+    private long windowStart() {
+        if (latestBucket == Long.MIN_VALUE) {
+            return Long.MIN_VALUE;
+        }
+        if (tumbling) {
+            return Math.floorDiv(latestBucket, windowSize) * windowSize;
+        }
+        return latestBucket - windowSize + 1;
+    }
+
+    // Function to add one tweet; returns false if it is too old for the current window
+    public boolean ingest(TrendingHashtags.Tweet tweet) {
+        return ingest(tweet.tweetDate.atStartOfDay(), tweet.tweet);
+    }
+
+    public boolean ingest(LocalDateTime time, String text) {
+        advanceTo(time);
+        long bucket = bucketOf(time);
+        if (bucket < windowStart()) {
+            return false; // Late tweet whose window has already expired
+        }
+
+        if (approximate) {
+            TrendingHashtagSketch sketch = sketches.computeIfAbsent(bucket,
+                    b -> new TrendingHashtagSketch(epsilon, delta));
+            for (String hashtag : TrendingHashtags.extractHashtags(text)) {
+                sketch.add(hashtag);
+            }
+            return true;
+        }
+
+        Map<String, Integer> bucketCounts = buckets.computeIfAbsent(bucket, b -> new HashMap<>());
+        for (String hashtag : TrendingHashtags.extractHashtags(text)) {
+            bucketCounts.merge(hashtag, 1, Integer::sum);
+            adjust(hashtag, 1);
+        }
+        return true;
+    }
+
+    // Function to move the clock forward and expire buckets that left the window
+    public void advanceTo(LocalDateTime now) {
+        long bucket = bucketOf(now);
+        if (bucket <= latestBucket) {
+            return;
+        }
+        latestBucket = bucket;
+
+        long start = windowStart();
+        sketches.headMap(start).clear();
+        while (!buckets.isEmpty() && buckets.firstKey() < start) {
+            for (Map.Entry<String, Integer> expired : buckets.pollFirstEntry().getValue().entrySet()) {
+                adjust(expired.getKey(), -expired.getValue());
+            }
+        }
+    }
+
+    // Function to change a hashtag's total while keeping the ranking ordered
+    private void adjust(String hashtag, int delta) {
+        Counter counter = totals.get(hashtag);
+        if (counter == null) {
+            counter = new Counter(hashtag);
+            totals.put(hashtag, counter);
+        } else {
+            ranking.remove(counter);
+        }
+
+        counter.count += delta;
+        if (counter.count > 0) {
+            ranking.add(counter);
+        } else {
+            totals.remove(hashtag);
+        }
+    }
+
+    // Function to return the current top K hashtags of the window
+    public List<Map.Entry<String, Integer>> topK(int k) {
+        if (approximate) {
+            return approximateTopK(k);
+        }
+        List<Map.Entry<String, Integer>> top = new ArrayList<>(Math.min(k, ranking.size()));
+        for (Counter counter : ranking) {
+            if (top.size() == k) {
+                break;
+            }
+            top.add(new AbstractMap.SimpleImmutableEntry<>(counter.hashtag, counter.count));
+        }
+        return top;
+    }
+
+    // Function to rank every hashtag some live bucket monitors. A hashtag's bounds are the sums of its
+    // per-bucket bounds, so its true window count lies in [value - errorBound, value]
+    private List<Map.Entry<String, Integer>> approximateTopK(int k) {
+        Set<String> candidates = new HashSet<>();
+        for (TrendingHashtagSketch sketch : sketches.values()) {
+            candidates.addAll(sketch.monitoredHashtags());
+        }
+        List<TrendingHashtagSketch.Estimate> estimates = new ArrayList<>(candidates.size());
+        for (String hashtag : candidates) {
+            int upper = 0, lower = 0;
+            for (TrendingHashtagSketch sketch : sketches.values()) {
+                upper += sketch.upperBound(hashtag);
+                lower += sketch.lowerBound(hashtag);
+            }
+            estimates.add(new TrendingHashtagSketch.Estimate(hashtag, upper, upper - lower));
+        }
+        estimates.sort(TrendingHashtags.TRENDING_ORDER);
+        return new ArrayList<>(estimates.subList(0, Math.min(k, estimates.size())));
+    }
+
+    // Number of distinct hashtags currently held in memory
+    public int distinctHashtags() {
+        if (approximate) {
+            Set<String> held = new HashSet<>();
+            for (TrendingHashtagSketch sketch : sketches.values()) {
+                held.addAll(sketch.monitoredHashtags());
+            }
+            return held.size();
+        }
+        return totals.size();
+    }
+
+    // Counters held by the live sketches (approximate mode only)
+    public int footprint() {
+        int counters = 0;
+        for (TrendingHashtagSketch sketch : sketches.values()) {
+            counters += sketch.footprint();
+        }
+        return counters;
+    }
+
+    public static void main(String[] args) {
+        List<TrendingHashtags.Tweet> tweets = Arrays.asList(
+                new TrendingHashtags.Tweet(134, 12, LocalDate.of(2024, 1, 30),
+                        "Last days of January #HappyDay #Winter"),
+                new TrendingHashtags.Tweet(135, 13, LocalDate.of(2024, 2, 1),
+                        "Enjoying a great start to the day. #HappyDay #MorningVibes"),
+                new TrendingHashtags.Tweet(136, 14, LocalDate.of(2024, 2, 3),
+                        "Another #HappyDay with good vibes! #FeelGood"),
+                new TrendingHashtags.Tweet(137, 15, LocalDate.of(2024, 2, 4),
+                        "Productivity peaks! #Worklife #ProductiveDay"),
+                new TrendingHashtags.Tweet(138, 16, LocalDate.of(2024, 2, 4),
+                        "Exploring new tech frontiers. #TechLife #Innovation"),
+                new TrendingHashtags.Tweet(139, 17, LocalDate.of(2024, 2, 5),
+                        "Gratitude for today's moments. #HappyDay #Thankful"),
+                new TrendingHashtags.Tweet(140, 18, LocalDate.of(2024, 2, 7),
+                        "Innovation drives us. #TechLife #FutureTech"),
+                new TrendingHashtags.Tweet(141, 19, LocalDate.of(2024, 2, 9),
+                        "Connecting with nature's serenity. #Nature #Peaceful"));
+
+        // Test Case 1: tumbling monthly window gives the same answer as the February batch scan
+        TrendingHashtagStream monthly = tumbling(Granularity.MONTH, 1);
+        for (TrendingHashtags.Tweet tweet : tweets) {
+            monthly.ingest(tweet);
+        }
+        System.out.println("Test Case 1:");
+        System.out.println("Output: " + monthly.topK(3)); // Expected: [#HappyDay=3, #TechLife=2, #Worklife=1]
+        System.out.println("Batch:  " + TrendingHashtags.findTopTrendingHashtags(tweets));
+
+        // Test Case 2: sliding 3-day window only remembers the last three days
+        TrendingHashtagStream daily = sliding(Granularity.DAY, 3);
+        for (TrendingHashtags.Tweet tweet : tweets) {
+            daily.ingest(tweet);
+        }
+        System.out.println("\nTest Case 2:");
+        System.out.println("Output: " + daily.topK(3)); // Expected: [#TechLife=1, #Peaceful=1, #Nature=1]
+        System.out.println("Distinct hashtags held: " + daily.distinctHashtags()); // Expected: 4
+
+        // Test Case 3: hourly window expires when the clock moves on without new tweets
+        TrendingHashtagStream hourly = sliding(Granularity.HOUR, 2);
+        hourly.ingest(LocalDateTime.of(2024, 2, 1, 10, 15), "#Coffee #Monday");
+        hourly.ingest(LocalDateTime.of(2024, 2, 1, 11, 5), "#Coffee");
+        hourly.advanceTo(LocalDateTime.of(2024, 2, 1, 12, 0));
+        System.out.println("\nTest Case 3:");
+        System.out.println("Output: " + hourly.topK(3)); // Expected: [#Coffee=1]
+
+        // Test Case 4: approximate 3-day sliding window under a daily spam campaign
+        TrendingHashtagStream exact = sliding(Granularity.DAY, 3);
+        TrendingHashtagStream sketched = approximate(Granularity.DAY, 3, false, 0.001, 0.01);
+        Random random = new Random(42);
+        int maxFootprint = 0;
+        for (int day = 1; day <= 10; day++) {
+            LocalDateTime time = LocalDateTime.of(2024, 3, day, 12, 0);
+            for (int i = 0; i < 50000; i++) {
+                String text = "#spam" + day + "x" + i;
+                if (random.nextInt(4) == 0) {
+                    text += " #Election";
+                }
+                if (random.nextInt(8) == 0) {
+                    text += " #Weather";
+                }
+                if (day >= 8 && random.nextInt(16) == 0) {
+                    text += " #Football";
+                }
+                exact.ingest(time, text);
+                sketched.ingest(time, text);
+            }
+            maxFootprint = Math.max(maxFootprint, sketched.footprint());
+        }
+        System.out.println("\nTest Case 4:");
+        System.out.println("Exact:  " + exact.topK(3));
+        System.out.println("Approx: " + sketched.topK(3)); // Expected: #Election, #Weather, #Football within bounds
+        System.out.println("Exact hashtags held: " + exact.distinctHashtags() + ", sketch counters held at most: "
+                + maxFootprint);
+    }
+}
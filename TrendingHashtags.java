@@ -1,6 +1,7 @@
 
 //4a- Hashmap
 import java.util.*;
+import java.io.IOException;
 import java.time.LocalDate;
 
 public class TrendingHashtags {
@@ -20,49 +21,74 @@ public class TrendingHashtags {
     }
 
     // Function to extract hashtags from a tweet
-    private static List<String> extractHashtags(String tweet) {
+    static List<String> extractHashtags(String tweet) {
         List<String> hashtags = new ArrayList<>();
-        String[] words = tweet.split(" ");
-        for (String word : words) {
-            if (word.startsWith("#")) {
-                hashtags.add(word);
-            }
-        }
+        HashtagTokenizer.scan(tweet, (text, start, end) -> hashtags.add(text.subSequence(start, end).toString()));
         return hashtags;
     }
 
+    // Date window used by the trending queries (February 2024)
+    static final LocalDate START_DATE = LocalDate.of(2024, 2, 1);
+    static final LocalDate END_DATE = LocalDate.of(2024, 2, 29);
+
+    // Function to check whether a tweet falls inside the date window
+    static boolean inWindow(Tweet tweet) {
+        return !tweet.tweetDate.isBefore(START_DATE) && !tweet.tweetDate.isAfter(END_DATE);
+    }
+
+    // Ranking order: count (descending) and then hashtag (descending)
+    static final Comparator<Map.Entry<String, Integer>> TRENDING_ORDER = (a, b) -> {
+        int countCompare = b.getValue().compareTo(a.getValue());
+        if (countCompare != 0) {
+            return countCompare;
+        } else {
+            return b.getKey().compareTo(a.getKey());
+        }
+    };
+
     // Function to find the top 3 trending hashtags
     public static List<Map.Entry<String, Integer>> findTopTrendingHashtags(List<Tweet> tweets) {
-        // Step 1: Filter tweets from February 2024
-        LocalDate startDate = LocalDate.of(2024, 2, 1);
-        LocalDate endDate = LocalDate.of(2024, 2, 29);
-
-        // Step 2: Extract hashtags and count their occurrences
-        Map<String, Integer> hashtagCounts = new HashMap<>();
+        // Step 1 and 2: Filter tweets from February 2024 and count their hashtags
+        // (by interned id, without per-word objects)
+        HashtagTokenizer.HashtagCounter counter = new HashtagTokenizer.HashtagCounter();
         for (Tweet tweet : tweets) {
-            if (!tweet.tweetDate.isBefore(startDate) && !tweet.tweetDate.isAfter(endDate)) {
-                List<String> hashtags = extractHashtags(tweet.tweet);
-                for (String hashtag : hashtags) {
-                    hashtagCounts.put(hashtag, hashtagCounts.getOrDefault(hashtag, 0) + 1);
-                }
+            if (inWindow(tweet)) {
+                HashtagTokenizer.scan(tweet.tweet, counter);
             }
         }
 
         // Step 3: Sort hashtags by count (descending) and then by hashtag (descending)
-        List<Map.Entry<String, Integer>> sortedHashtags = new ArrayList<>(hashtagCounts.entrySet());
-        sortedHashtags.sort((a, b) -> {
-            int countCompare = b.getValue().compareTo(a.getValue());
-            if (countCompare != 0) {
-                return countCompare;
-            } else {
-                return b.getKey().compareTo(a.getKey());
-            }
-        });
+        List<Map.Entry<String, Integer>> sortedHashtags = new ArrayList<>(counter.size());
+        for (int id = 0; id < counter.size(); id++) {
+            sortedHashtags.add(new AbstractMap.SimpleImmutableEntry<>(counter.dictionary.hashtag(id), counter.count(id)));
+        }
+        sortedHashtags.sort(TRENDING_ORDER);
 
         // Step 4: Select the top 3 hashtags
         return sortedHashtags.subList(0, Math.min(3, sortedHashtags.size()));
     }
 
+    // Function to find the top 3 trending hashtags with a fixed-memory sketch instead of an exact map
+    public static List<TrendingHashtagSketch.Estimate> findTopTrendingHashtagsApprox(List<Tweet> tweets,
+            double epsilon, double delta) {
+        // Memory is fixed by epsilon and delta, however many distinct hashtags appear
+        TrendingHashtagSketch sketch = new TrendingHashtagSketch(epsilon, delta);
+        for (Tweet tweet : tweets) {
+            if (inWindow(tweet)) {
+                for (String hashtag : extractHashtags(tweet.tweet)) {
+                    sketch.add(hashtag);
+                }
+            }
+        }
+        return sketch.topK(3);
+    }
+
+    // Function to find the top 3 trending hashtags from a columnar store, skipping blocks outside the window
+    public static List<Map.Entry<String, Integer>> findTopTrendingHashtags(TweetColumnStore store)
+            throws IOException {
+        return store.findTopTrendingHashtags(START_DATE, END_DATE, 3);
+    }
+
     // Main function to test the solution
     public static void main(String[] args) {
         // Sample tweets
@@ -0,0 +1,176 @@
+//4a - Parallel sharded hashtag counting for large tweet archives
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.*;
+
+public class TrendingHashtagsParallel {
+
+    // Fewest tweets counted by one leaf task before it stops splitting
+    private static final int GRAIN = 1 << 14;
+    // Leaves per pool thread: enough for work stealing to balance, few enough to keep the merge small
+    private static final int LEAVES_PER_THREAD = 4;
+
+    // Phase 1: count a range of tweets; each leaf fills its own counter and joins collect them
+    private static class CountTask extends RecursiveTask<List<HashtagTokenizer.HashtagCounter>> {
+        private static final long serialVersionUID = 1L;
+
+        final List<TrendingHashtags.Tweet> tweets;
+        final int from, to, grain;
+
+        CountTask(List<TrendingHashtags.Tweet> tweets, int from, int to, int grain) {
+            this.tweets = tweets;
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+        }
+
+        @Override
+        protected List<HashtagTokenizer.HashtagCounter> compute() {
+            if (to - from <= grain) {
+                HashtagTokenizer.HashtagCounter counter = new HashtagTokenizer.HashtagCounter();
+                for (int i = from; i < to; i++) {
+                    TrendingHashtags.Tweet tweet = tweets.get(i);
+                    if (TrendingHashtags.inWindow(tweet)) {
+                        HashtagTokenizer.scan(tweet.tweet, counter);
+                    }
+                }
+                List<HashtagTokenizer.HashtagCounter> counters = new ArrayList<>();
+                counters.add(counter);
+                return counters;
+            }
+            int mid = (from + to) >>> 1;
+            CountTask left = new CountTask(tweets, from, mid, grain);
+            left.fork();
+            List<HashtagTokenizer.HashtagCounter> counters = new CountTask(tweets, mid, to, grain).compute();
+            counters.addAll(left.join());
+            return counters;
+        }
+    }
+
+    // Function to pick the shard that owns a hashtag; every hashtag lives in exactly one shard
+    private static int shardOf(String hashtag, int shards) {
+        int h = hashtag.hashCode();
+        return Math.floorMod(h ^ (h >>> 16), shards);
+    }
+
+    // Function to find the top K trending hashtags using every thread of the pool
+    public static List<Map.Entry<String, Integer>> findTopTrendingHashtags(List<TrendingHashtags.Tweet> tweets,
+            int k, ForkJoinPool pool) throws InterruptedException, ExecutionException {
+        // Phase 1: counting into one counter per leaf; tasks index the list, so it must be random access
+        List<TrendingHashtags.Tweet> indexed = tweets instanceof RandomAccess ? tweets : new ArrayList<>(tweets);
+        int leaves = pool.getParallelism() * LEAVES_PER_THREAD;
+        int grain = Math.max(GRAIN, (indexed.size() + leaves - 1) / leaves);
+        List<HashtagTokenizer.HashtagCounter> partials = pool.invoke(new CountTask(indexed, 0, indexed.size(), grain));
+
+        // Phase 2: split each leaf counter's ids by shard so a shard merge only reads its own keys
+        int shards = pool.getParallelism() * 4;
+        List<Callable<int[][]>> splitJobs = new ArrayList<>();
+        for (HashtagTokenizer.HashtagCounter counter : partials) {
+            splitJobs.add(() -> {
+                int[] sizes = new int[shards];
+                int[] shardOfId = new int[counter.size()];
+                for (int id = 0; id < counter.size(); id++) {
+                    shardOfId[id] = shardOf(counter.dictionary.hashtag(id), shards);
+                    sizes[shardOfId[id]]++;
+                }
+                int[][] idsByShard = new int[shards][];
+                for (int s = 0; s < shards; s++) {
+                    idsByShard[s] = new int[sizes[s]];
+                    sizes[s] = 0;
+                }
+                for (int id = 0; id < shardOfId.length; id++) {
+                    int s = shardOfId[id];
+                    idsByShard[s][sizes[s]++] = id;
+                }
+                return idsByShard;
+            });
+        }
+        List<int[][]> splits = new ArrayList<>();
+        for (Future<int[][]> future : pool.invokeAll(splitJobs)) {
+            splits.add(future.get());
+        }
+
+        // Phase 3: merge each shard exactly and keep its top K with a bounded heap
+        Comparator<Map.Entry<String, Integer>> worstFirst = TrendingHashtags.TRENDING_ORDER.reversed();
+        List<Callable<List<Map.Entry<String, Integer>>>> shardJobs = new ArrayList<>();
+        for (int shard = 0; shard < shards; shard++) {
+            final int s = shard;
+            shardJobs.add(() -> {
+                Map<String, Integer> merged = new HashMap<>();
+                for (int c = 0; c < partials.size(); c++) {
+                    HashtagTokenizer.HashtagCounter counter = partials.get(c);
+                    for (int id : splits.get(c)[s]) {
+                        merged.merge(counter.dictionary.hashtag(id), counter.count(id), Integer::sum);
+                    }
+                }
+                PriorityQueue<Map.Entry<String, Integer>> heap = new PriorityQueue<>(k + 1, worstFirst);
+                for (Map.Entry<String, Integer> entry : merged.entrySet()) {
+                    heap.add(entry);
+                    if (heap.size() > k) {
+                        heap.poll();
+                    }
+                }
+                return new ArrayList<>(heap);
+            });
+        }
+
+        // Phase 4: shards hold disjoint hashtags, so the global top K is among the shard top Ks
+        List<Map.Entry<String, Integer>> candidates = new ArrayList<>();
+        for (Future<List<Map.Entry<String, Integer>>> future : pool.invokeAll(shardJobs)) {
+            candidates.addAll(future.get());
+        }
+        candidates.sort(TrendingHashtags.TRENDING_ORDER);
+        return new ArrayList<>(candidates.subList(0, Math.min(k, candidates.size())));
+    }
+
+    public static List<Map.Entry<String, Integer>> findTopTrendingHashtags(List<TrendingHashtags.Tweet> tweets,
+            int parallelism) throws InterruptedException, ExecutionException {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            return findTopTrendingHashtags(tweets, 3, pool);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // Function to build a synthetic archive spread over a year
+    private static List<TrendingHashtags.Tweet> buildArchive(int size, long seed) {
+        Random random = new Random(seed);
+        List<TrendingHashtags.Tweet> tweets = new ArrayList<>(size);
+        LocalDate first = LocalDate.of(2024, 1, 1);
+        for (int i = 0; i < size; i++) {
+            StringBuilder text = new StringBuilder("Backfill tweet");
+            int tags = random.nextInt(4);
+            for (int t = 0; t < tags; t++) {
+                text.append(" #Tag").append((int) (Math.pow(random.nextDouble(), 2) * 5000));
+            }
+            tweets.add(new TrendingHashtags.Tweet(random.nextInt(100000), i, first.plusDays(random.nextInt(366)),
+                    text.toString()));
+        }
+        return tweets;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        List<TrendingHashtags.Tweet> tweets = buildArchive(size, 11);
+
+        long start = System.nanoTime();
+        List<Map.Entry<String, Integer>> expected = TrendingHashtags.findTopTrendingHashtags(tweets);
+        System.out.printf("sequential: %6d ms %s%n", (System.nanoTime() - start) / 1_000_000, expected);
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        for (int threads = 1; threads <= Math.max(cores, 4); threads *= 2) {
+            start = System.nanoTime();
+            List<Map.Entry<String, Integer>> result = findTopTrendingHashtags(tweets, threads);
+            System.out.printf("%2d threads: %6d ms %s %s%n", threads, (System.nanoTime() - start) / 1_000_000, result,
+                    result.equals(expected) ? "MATCH" : "MISMATCH");
+        }
+
+        // A LinkedList archive is copied once instead of walked from the head by every leaf
+        start = System.nanoTime();
+        List<Map.Entry<String, Integer>> linked = findTopTrendingHashtags(new LinkedList<>(tweets), 4);
+        System.out.printf("LinkedList: %6d ms %s %s%n", (System.nanoTime() - start) / 1_000_000, linked,
+                linked.equals(expected) ? "MATCH" : "MISMATCH");
+    }
+}
@@ -0,0 +1,269 @@
+//4a - Memory-mapped columnar tweet store with per-block date ranges
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.util.*;
+
+// File layout (big-endian):
+//   block*  : int rows | int day[rows] | int userId[rows] | int tweetId[rows] | int textEnd[rows] | utf-8 text
+//   index   : per block { long offset, int length, int rows, int minDay, int maxDay }
+//   trailer : long indexOffset | int blockCount | long tweetCount | int MAGIC
+public class TweetColumnStore implements Closeable {
+
+    private static final int MAGIC = 0x54574331; // "TWC1"
+    private static final int TRAILER_BYTES = 8 + 4 + 8 + 4;
+    private static final int INDEX_ENTRY_BYTES = 8 + 4 + 4 + 4 + 4;
+    static final int DEFAULT_BLOCK_ROWS = 1 << 16;
+
+    // Writes tweets block by block; only one block is buffered at a time
+    static class Writer implements Closeable {
+        private final DataOutputStream out;
+        private final int blockRows;
+        private final int[] days, userIds, tweetIds, textEnds;
+        private byte[] text = new byte[1 << 16];
+        private int rows, textLength;
+        private long position;
+        private long tweetCount;
+
+        // Block index collected while writing (small: one entry per block)
+        private final List<long[]> index = new ArrayList<>();
+
+        Writer(Path path, int blockRows) throws IOException {
+            this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), 1 << 16));
+            this.blockRows = blockRows;
+            this.days = new int[blockRows];
+            this.userIds = new int[blockRows];
+            this.tweetIds = new int[blockRows];
+            this.textEnds = new int[blockRows];
+        }
+
+        public void append(TrendingHashtags.Tweet tweet) throws IOException {
+            byte[] utf8 = tweet.tweet.getBytes(StandardCharsets.UTF_8);
+            if (textLength + utf8.length > text.length) {
+                text = Arrays.copyOf(text, Math.max(text.length * 2, textLength + utf8.length));
+            }
+            System.arraycopy(utf8, 0, text, textLength, utf8.length);
+            textLength += utf8.length;
+
+            days[rows] = (int) tweet.tweetDate.toEpochDay();
+            userIds[rows] = tweet.userId;
+            tweetIds[rows] = tweet.tweetId;
+            textEnds[rows] = textLength;
+            rows++;
+            tweetCount++;
+            if (rows == blockRows) {
+                flushBlock();
+            }
+        }
+
+        private void flushBlock() throws IOException {
+            if (rows == 0) {
+                return;
+            }
+            int minDay = Integer.MAX_VALUE, maxDay = Integer.MIN_VALUE;
+            for (int i = 0; i < rows; i++) {
+                minDay = Math.min(minDay, days[i]);
+                maxDay = Math.max(maxDay, days[i]);
+            }
+
+            long offset = position;
+            out.writeInt(rows);
+            for (int[] column : new int[][] { days, userIds, tweetIds, textEnds }) {
+                for (int i = 0; i < rows; i++) {
+                    out.writeInt(column[i]);
+                }
+            }
+            out.write(text, 0, textLength);
+            int length = 4 + rows * 16 + textLength;
+            position += length;
+            index.add(new long[] { offset, length, rows, minDay, maxDay });
+
+            rows = 0;
+            textLength = 0;
+        }
+
+        @Override
+        public void close() throws IOException {
+            flushBlock();
+            long indexOffset = position;
+            for (long[] entry : index) {
+                out.writeLong(entry[0]);
+                out.writeInt((int) entry[1]);
+                out.writeInt((int) entry[2]);
+                out.writeInt((int) entry[3]);
+                out.writeInt((int) entry[4]);
+            }
+            out.writeLong(indexOffset);
+            out.writeInt(index.size());
+            out.writeLong(tweetCount);
+            out.writeInt(MAGIC);
+            out.close();
+        }
+    }
+
+    // Function to write a list of tweets into a new store file
+    public static void write(Path path, List<TrendingHashtags.Tweet> tweets, int blockRows) throws IOException {
+        try (Writer writer = new Writer(path, blockRows)) {
+            for (TrendingHashtags.Tweet tweet : tweets) {
+                writer.append(tweet);
+            }
+        }
+    }
+
+    private final FileChannel channel;
+    private final long[] blockOffsets;
+    private final int[] blockLengths, blockRowCounts, blockMinDays, blockMaxDays;
+    private final long tweetCount;
+
+    // Blocks read and skipped by the last scan
+    int lastBlocksRead, lastBlocksSkipped;
+
+    private TweetColumnStore(FileChannel channel) throws IOException {
+        this.channel = channel;
+        long size = channel.size();
+        if (size < TRAILER_BYTES) {
+            throw new IOException("Not a tweet column store");
+        }
+        ByteBuffer trailer = channel.map(FileChannel.MapMode.READ_ONLY, size - TRAILER_BYTES, TRAILER_BYTES);
+        long indexOffset = trailer.getLong();
+        int blocks = trailer.getInt();
+        this.tweetCount = trailer.getLong();
+        if (trailer.getInt() != MAGIC) {
+            throw new IOException("Not a tweet column store");
+        }
+
+        ByteBuffer index = channel.map(FileChannel.MapMode.READ_ONLY, indexOffset, (long) blocks * INDEX_ENTRY_BYTES);
+        blockOffsets = new long[blocks];
+        blockLengths = new int[blocks];
+        blockRowCounts = new int[blocks];
+        blockMinDays = new int[blocks];
+        blockMaxDays = new int[blocks];
+        for (int b = 0; b < blocks; b++) {
+            blockOffsets[b] = index.getLong();
+            blockLengths[b] = index.getInt();
+            blockRowCounts[b] = index.getInt();
+            blockMinDays[b] = index.getInt();
+            blockMaxDays[b] = index.getInt();
+        }
+    }
+
+    public static TweetColumnStore open(Path path) throws IOException {
+        return new TweetColumnStore(FileChannel.open(path, StandardOpenOption.READ));
+    }
+
+    public long size() {
+        return tweetCount;
+    }
+
+    // Function to feed every hashtag of tweets dated in [start, end] to the sink, without building Tweet objects
+    public void scanHashtags(LocalDate start, LocalDate end, HashtagTokenizer.HashtagSink sink) throws IOException {
+        int startDay = (int) start.toEpochDay();
+        int endDay = (int) end.toEpochDay();
+        CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder();
+        CharBuffer chars = CharBuffer.allocate(1 << 12);
+        lastBlocksRead = 0;
+        lastBlocksSkipped = 0;
+
+        for (int b = 0; b < blockOffsets.length; b++) {
+            // Skip blocks whose whole date range lies outside the query
+            if (blockMaxDays[b] < startDay || blockMinDays[b] > endDay) {
+                lastBlocksSkipped++;
+                continue;
+            }
+            lastBlocksRead++;
+            boolean wholeBlock = blockMinDays[b] >= startDay && blockMaxDays[b] <= endDay;
+
+            MappedByteBuffer block = channel.map(FileChannel.MapMode.READ_ONLY, blockOffsets[b], blockLengths[b]);
+            int rows = block.getInt(0);
+            int daysAt = 4;
+            int textEndsAt = 4 + rows * 12;
+            int textAt = 4 + rows * 16;
+
+            int textStart = 0;
+            for (int row = 0; row < rows; row++) {
+                int textEnd = block.getInt(textEndsAt + row * 4);
+                if (wholeBlock || inRange(block.getInt(daysAt + row * 4), startDay, endDay)) {
+                    // Decode the row's UTF-8 bytes into the reused char buffer and tokenize in place
+                    int byteLength = textEnd - textStart;
+                    if (chars.capacity() < byteLength) {
+                        chars = CharBuffer.allocate(Math.max(byteLength, chars.capacity() * 2));
+                    }
+                    block.limit(textAt + textEnd).position(textAt + textStart);
+                    chars.clear();
+                    decoder.reset();
+                    CoderResult result = decoder.decode(block, chars, true);
+                    if (result.isError()) {
+                        result.throwException();
+                    }
+                    chars.flip();
+                    HashtagTokenizer.scan(chars, sink);
+                    block.limit(block.capacity());
+                }
+                textStart = textEnd;
+            }
+        }
+    }
+
+    private static boolean inRange(int day, int startDay, int endDay) {
+        return day >= startDay && day <= endDay;
+    }
+
+    // Function to find the top K hashtags for tweets dated in [start, end]
+    public List<Map.Entry<String, Integer>> findTopTrendingHashtags(LocalDate start, LocalDate end, int k)
+            throws IOException {
+        HashtagTokenizer.HashtagCounter counter = new HashtagTokenizer.HashtagCounter();
+        scanHashtags(start, end, counter);
+
+        PriorityQueue<Map.Entry<String, Integer>> heap = new PriorityQueue<>(k + 1,
+                TrendingHashtags.TRENDING_ORDER.reversed());
+        for (int id = 0; id < counter.size(); id++) {
+            heap.add(new AbstractMap.SimpleImmutableEntry<>(counter.dictionary.hashtag(id), counter.count(id)));
+            if (heap.size() > k) {
+                heap.poll();
+            }
+        }
+        List<Map.Entry<String, Integer>> top = new ArrayList<>(heap);
+        top.sort(TrendingHashtags.TRENDING_ORDER);
+        return top;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    public static void main(String[] args) throws IOException {
+        // A year of synthetic tweets written in date order, like an archive export
+        Random random = new Random(3);
+        List<TrendingHashtags.Tweet> tweets = new ArrayList<>();
+        LocalDate day = LocalDate.of(2024, 1, 1);
+        for (int i = 0; i < 200_000; i++) {
+            if (random.nextInt(550) == 0) {
+                day = day.plusDays(1);
+            }
+            String text = "Archive tweet " + i + " #Tag" + random.nextInt(50) + " #Tag" + random.nextInt(500)
+                    + (day.getMonthValue() == 2 ? " #February" : "");
+            tweets.add(new TrendingHashtags.Tweet(random.nextInt(1000), i, day, text));
+        }
+
+        Path path = Files.createTempFile("tweets", ".twc");
+        try {
+            write(path, tweets, 4096);
+            try (TweetColumnStore store = open(path)) {
+                List<Map.Entry<String, Integer>> fromStore = TrendingHashtags.findTopTrendingHashtags(store);
+                System.out.println("Tweets stored: " + store.size());
+                System.out.println("Output: " + fromStore);
+                System.out.println("Heap:   " + TrendingHashtags.findTopTrendingHashtags(tweets)); // Expected: same
+                System.out.println("Blocks read: " + store.lastBlocksRead + ", skipped: " + store.lastBlocksSkipped);
+            }
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+}